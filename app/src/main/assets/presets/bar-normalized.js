@@ -0,0 +1,63 @@
+/* bar-normalized — 100% 堆疊長條。資料形狀：pivot（encode.x / encode.y + stackField，依 x 分組換算百分比） */
+
+/** dataset 列的 y 值（pivot 後 value 為整列陣列） */
+function _normalizedValue(param) {
+    return Array.isArray(param.value) ? param.value[param.encode.y[0]] : param.value;
+}
+
+// formatter 以名稱註冊：Worker 產生的 option 只傳名稱，主執行緒從同一份模組取回函式
+PresetRegistry.formatter("bar-normalized.tooltip", function (params) {
+    let html = `<b>${params[0].axisValue}</b><br/>`;
+    params.forEach(p => {
+        html += `${p.marker}${p.seriesName}: <b>${_normalizedValue(p)}%</b><br/>`;
+    });
+    return html;
+});
+
+PresetRegistry.formatter("bar-normalized.label", function (param) {
+    const value = _normalizedValue(param);
+    return value > 5 ? value + "%" : "";
+});
+
+PresetRegistry.register("bar-normalized", {
+    transformData(rows, { stackField, encode }) {
+        if (!stackField || !encode) return rows;
+        const xField = encode.x, yField = encode.y, totals = {};
+        rows.forEach(row => {
+            const x = String(row[xField]);
+            totals[x] = (totals[x] || 0) + Number(row[yField] || 0);
+        });
+        return rows.map(row => {
+            const total = totals[String(row[xField])];
+            const pct = total ? Math.round(Number(row[yField] || 0) * 1000 / total) / 10 : 0;
+            return Object.assign({}, row, { [yField]: pct });
+        });
+    },
+
+    buildOption(rows, { encode, stackField, theme }, helpers) {
+        const { pivotData, makeXAxis, makeYAxis, makeTooltip, makeLegend, makeGrid } = helpers;
+        const pivot = pivotData(rows, stackField, encode.x, encode.y);
+        const last = pivot.categories.length - 1;
+
+        const series = pivot.categories.map((category, i) => ({
+            type: "bar",
+            name: category,
+            stack: "total",
+            encode: { x: encode.x, y: category },
+            barMaxWidth: 40,
+            label: { show: true, formatter: PresetRegistry.formatterOf("bar-normalized.label") },
+            itemStyle: i === last ? { borderRadius: [4, 4, 0, 0] } : {},
+            emphasis: { focus: "series" }
+        }));
+
+        return {
+            dataset: { dimensions: pivot.dimensions, source: pivot.source },
+            tooltip: Object.assign(makeTooltip("bar"), { formatter: PresetRegistry.formatterOf("bar-normalized.tooltip") }),
+            legend: makeLegend(theme),
+            series,
+            xAxis: makeXAxis(theme),
+            yAxis: Object.assign(makeYAxis(theme), { max: 100, axisLabel: { fontSize: 11, formatter: "{value}%" } }),
+            grid: makeGrid()
+        };
+    }
+});
@@ -0,0 +1,32 @@
+/* gauge-ring — 多環進度儀表。資料形狀：name/value（encode.itemName / encode.value，每列一環） */
+PresetRegistry.register("gauge-ring", {
+    buildOption(rows, { encode }) {
+        const nameField = encode.itemName || "name";
+        const valueField = encode.value || "value";
+
+        return {
+            series: [{
+                type: "gauge",
+                startAngle: 90,
+                endAngle: -270,
+                pointer: { show: false },
+                progress: { show: true, overlap: false, roundCap: true, clip: false },
+                axisLine: { lineStyle: { width: 18 } },
+                splitLine: { show: false },
+                axisTick: { show: false },
+                axisLabel: { show: false },
+                data: rows.map((row, i) => ({
+                    name: row[nameField],
+                    value: row[valueField],
+                    title: { offsetCenter: ["0%", (i * 40 - 40) + "%"], fontSize: 12 },
+                    detail: {
+                        offsetCenter: ["0%", (i * 40 - 15) + "%"],
+                        color: "inherit",
+                        fontSize: 16,
+                        formatter: "{value}%"
+                    }
+                }))
+            }]
+        };
+    }
+});
@@ -0,0 +1,44 @@
+/* heatmap — 熱力圖。資料形狀：grid（HeatmapGrid tile，或 encode.x / encode.y / encode.value 的 row） */
+PresetRegistry.register("heatmap", {
+    buildOption(rows, { encode, heatmap }, helpers) {
+        const { makeGrid } = helpers;
+        let meta = heatmap, data = [];
+
+        // 沒有 HeatmapGrid tile 時，由 row 建立座標軸與數值範圍
+        if (!meta) {
+            const xField = encode.x || "x", yField = encode.y || "y", valueField = encode.value || "value";
+            const xLabels = [], yLabels = [], xIndex = {}, yIndex = {};
+            let lo = Infinity, hi = -Infinity;
+            data = rows.map(row => {
+                const x = String(row[xField]), y = String(row[yField]), v = Number(row[valueField]);
+                if (!(x in xIndex)) { xIndex[x] = xLabels.length; xLabels.push(x); }
+                if (!(y in yIndex)) { yIndex[y] = yLabels.length; yLabels.push(y); }
+                if (v < lo) lo = v;
+                if (v > hi) hi = v;
+                return [xIndex[x], yIndex[y], v];
+            });
+            meta = { xLabels, yLabels, min: lo > hi ? 0 : lo, max: lo > hi ? 0 : hi };
+        }
+
+        return {
+            tooltip: { position: "top" },
+            grid: makeGrid({ bottom: "16%" }),
+            xAxis: { type: "category", data: meta.xLabels, splitArea: { show: true } },
+            yAxis: { type: "category", data: meta.yLabels, splitArea: { show: true } },
+            visualMap: {
+                min: meta.min,
+                max: meta.max,
+                calculable: true,
+                orient: "horizontal",
+                left: "center",
+                bottom: 0,
+                itemHeight: 80
+            },
+            dataZoom: [
+                { type: "inside", id: "hx", xAxisIndex: 0 },
+                { type: "inside", id: "hy", yAxisIndex: 0 }
+            ],
+            series: [{ type: "heatmap", data, emphasis: { itemStyle: { shadowBlur: 6 } } }]
+        };
+    }
+});
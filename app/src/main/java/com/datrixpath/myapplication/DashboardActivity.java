@@ -0,0 +1,103 @@
+package com.datrixpath.myapplication;
+
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.datrixpath.myapplication.bridge.ChartPayloadCache;
+import com.datrixpath.myapplication.bridge.ChartWebViewPool;
+import com.datrixpath.myapplication.dashboard.ChartCardAdapter;
+import com.datrixpath.myapplication.viewmodel.ChartViewModel;
+
+/**
+ * DashboardActivity — 回收式儀表板（MainActivity 的替代宿主，由其「卡片模式」按鈕開啟）
+ *
+ * 與 MainActivity 的差異：
+ * - MainActivity：單一全螢幕 WebView，所有卡片在同一個 DOM 中，全部實例常駐
+ * - DashboardActivity：RecyclerView + 預熱的 WebView 池，每個 WebView 只渲染一張卡片，
+ * 隨捲動回收重用 → 記憶體與 layout 成本固定，不隨圖表數量成長
+ *
+ * 流程：
+ * onCreate → ChartWebViewPool.prewarm() ← 先載入頁面
+ * → ChartViewModel.fetchAllCharts()
+ * chartList observer → adapter.submitList() → bind 時 Slot.show(model)
+ */
+public class DashboardActivity extends AppCompatActivity {
+
+        private static final String TAG = "DashboardActivity";
+
+        /** 預熱數量：約為一個畫面可見的卡片數 + 1 */
+        private static final int POOL_PREWARM = 4;
+
+        /** payload 快取上限（字元數） */
+        private static final int PAYLOAD_CACHE_CHARS = 8 * 1024 * 1024;
+
+        private ChartWebViewPool pool;
+        private ChartViewModel viewModel;
+
+        @Override
+        protected void onCreate(Bundle savedInstanceState) {
+                super.onCreate(savedInstanceState);
+                setContentView(R.layout.activity_dashboard);
+
+                ProgressBar progressBar = findViewById(R.id.progressBar);
+                RecyclerView recycler = findViewById(R.id.chartRecycler);
+
+                // ① 預熱 WebView 池（與資料載入並行）
+                pool = new ChartWebViewPool(this, POOL_PREWARM, new ChartPayloadCache(PAYLOAD_CACHE_CHARS));
+                pool.prewarm();
+                getLifecycle().addObserver(pool); // 背景時暫停所有 WebView
+
+                // ② RecyclerView：固定高度卡片，不需重新量測
+                ChartCardAdapter adapter = new ChartCardAdapter(pool);
+                recycler.setLayoutManager(new LinearLayoutManager(this));
+                recycler.setHasFixedSize(true);
+                recycler.setItemViewCacheSize(2);
+                recycler.setAdapter(adapter);
+
+                // ③ 觀察圖表數據
+                viewModel = new ViewModelProvider(this).get(ChartViewModel.class);
+                getLifecycle().addObserver(viewModel.getRefresher());
+                viewModel.chartList.observe(this, charts -> {
+                        if (charts != null) {
+                                progressBar.setVisibility(View.GONE);
+                                recycler.setVisibility(View.VISIBLE);
+                                adapter.submitList(charts);
+                        }
+                });
+                viewModel.errorMsg.observe(this, msg -> {
+                        if (msg != null) {
+                                Log.e(TAG, "ViewModel error: " + msg);
+                                Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
+                        }
+                });
+
+                // ④ 觸發數據載入
+                viewModel.fetchAllCharts();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                super.onConfigurationChanged(newConfig);
+                if (pool != null) {
+                        pool.onConfigurationChanged(newConfig);
+                }
+        }
+
+        @Override
+        protected void onDestroy() {
+                super.onDestroy();
+                if (pool != null) {
+                        pool.destroy();
+                }
+        }
+}
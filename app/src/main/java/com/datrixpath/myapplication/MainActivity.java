@@ -1,5 +1,7 @@
 package com.datrixpath.myapplication;
 
+import android.content.Intent;
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -7,6 +9,7 @@ import android.webkit.WebView;
 import android.widget.ProgressBar;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
@@ -20,10 +23,12 @@ import com.datrixpath.myapplication.viewmodel.ChartViewModel;
  * 1. 初始化 WebView （透過 ChartWebViewManager）
  * 2. 觀察 ChartViewModel 的 LiveData
  * 3. 在頁面與數據都就緒後，透過 Bridge 注入圖表
+ * 4. 右上角按鈕開啟 DashboardActivity（回收式卡片儀表板）
  *
  * 流程：
  * Activity onCreate
  * → ChartWebViewManager.init() ← 載入 echarts_factory.html
+ * → getLifecycle().addObserver(manager) ← 背景時暫停 WebView，回到前景補送最新狀態
  * → ChartViewModel.fetchAllCharts()
  *
  * onPageReady() ← WebViewClient.onPageFinished 觸發
@@ -50,13 +55,17 @@ public class MainActivity extends AppCompatActivity implements ChartWebViewManag
 
                 progressBar = findViewById(R.id.progressBar);
                 chartWebView = findViewById(R.id.chartWebView);
+                findViewById(R.id.openDashboardButton).setOnClickListener(
+                                v -> startActivity(new Intent(this, DashboardActivity.class)));
 
                 // ① 初始化 JS Bridge & WebView
                 webViewManager = new ChartWebViewManager(chartWebView, this);
                 webViewManager.init();
+                getLifecycle().addObserver(webViewManager); // onStop 暫停、onStart 一次補送
 
                 // ② 初始化 ViewModel
                 viewModel = new ViewModelProvider(this).get(ChartViewModel.class);
+                getLifecycle().addObserver(viewModel.getRefresher()); // 背景時拉長自動更新間隔
 
                 // ③ 觀察圖表數據
                 viewModel.chartList.observe(this, charts -> {
@@ -128,6 +137,18 @@ public class MainActivity extends AppCompatActivity implements ChartWebViewManag
         // 生命週期
         // ─────────────────────────────────────────────────────────────
 
+        /**
+         * 夜間模式切換不重建 Activity（Manifest 宣告 configChanges="uiMode"），
+         * 交由 ChartWebViewManager 以已註冊的主題重繪，不重送圖表資料。
+         */
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                super.onConfigurationChanged(newConfig);
+                if (webViewManager != null) {
+                        webViewManager.onConfigurationChanged(newConfig);
+                }
+        }
+
         @Override
         protected void onDestroy() {
                 super.onDestroy();
@@ -0,0 +1,279 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.content.res.AssetManager;
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.WebResourceResponse;
+
+import com.datrixpath.myapplication.chart.ChartPresetRegistry;
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+import com.datrixpath.myapplication.model.HeatmapGrid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * ChartDataServer — 以虛擬 URL 串流大型 dataset（WebViewClient.shouldInterceptRequest）
+ *
+ * 大型 source 不再以字串常值塞進 evaluateJavascript：
+ * 1. publish(model) → 取得 /data/{chartId}/{version}
+ * 2. JS 端 renderChartStream(...) 以 fetch() 讀取，逐行解析
+ * 3. intercept() 回傳 DatasetStream，讀取時才把 row 編碼成位元組
+ *
+ * 共用 Dataset（多張圖表引用同一份資料）以 /dataset/{datasetId}/{version} 提供，格式相同。
+ *
+ * 熱力圖格點（HeatmapGrid）以 /tile/{chartId}/{version}/{level}/{tx}/{ty} 提供，
+ * 每個 tile 是 tileSize² 個 little-endian float32，JS 端直接包成 Float32Array。
+ *
+ * 頁面本身也由這裡提供（https://appassets.androidplatform.net/assets/...），
+ * 讓 fetch() 與資料 URL 同源；file:// 頁面無法 fetch 自訂路徑。
+ * HTML 頁面中的 preset 模組標籤由 ChartPresetRegistry.injectModules() 在此插入（版本只登記在 Java 端）。
+ * 帶 ?v= 的資產（presets/*.js）內容隨版本號固定，回應可長期快取，
+ * WebView 得以沿用已編譯的程式碼快取，不必每次啟動重新解析。
+ *
+ * shouldInterceptRequest 在 WebView 的背景執行緒呼叫，因此以 ConcurrentHashMap 保存。
+ */
+public class ChartDataServer {
+
+    private static final String TAG = "ChartDataServer";
+
+    public static final String HOST = "appassets.androidplatform.net";
+    public static final String PAGE_URL = "https://" + HOST + "/assets/echarts_factory.html";
+
+    /** 超過此 row 數的圖表改用串流（可由 ChartWebViewManager.setStreamThreshold 調整） */
+    public static final int DEFAULT_STREAM_MIN_ROWS = 5000;
+
+    private static final String ASSETS_SEGMENT = "assets";
+    private static final String DATA_SEGMENT = "data";
+    private static final String DATASET_SEGMENT = "dataset";
+    private static final String TILE_SEGMENT = "tile";
+
+    private static final class Entry {
+        final Object owner; // ChartUIModel 或 Dataset，以實例判斷是否為新版本
+        final List<Map<String, Object>> rows;
+        final List<String> dimensions;
+        final HeatmapGrid heatmap;
+        final long version;
+
+        Entry(Object owner, List<Map<String, Object>> rows, List<String> dimensions,
+                HeatmapGrid heatmap, long version) {
+            this.owner = owner;
+            this.rows = rows;
+            this.dimensions = dimensions;
+            this.heatmap = heatmap;
+            this.version = version;
+        }
+    }
+
+    private final AssetManager assets;
+    private final Map<String, Entry> published = new ConcurrentHashMap<>();
+    private final Map<String, Entry> publishedDatasets = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile boolean compress = false;
+
+    public ChartDataServer(AssetManager assets) {
+        this.assets = assets;
+    }
+
+    /**
+     * 是否壓縮資料串流（deflate）。僅在頁面支援 DecompressionStream 並以 ?z=1 要求時生效。
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 發佈 / 撤除
+    // ─────────────────────────────────────────────────────────────
+
+    /** 發佈圖表資料並回傳相對 URL；同一個 model 實例重複發佈時沿用原版本 */
+    public String publish(ChartUIModel model) {
+        return "/" + DATA_SEGMENT + "/" + Uri.encode(model.getId()) + "/" + register(model);
+    }
+
+    /** 發佈熱力圖格點並回傳 tile 的 URL 前綴（後接 /{level}/{tx}/{ty}） */
+    public String publishTiles(ChartUIModel model) {
+        return "/" + TILE_SEGMENT + "/" + Uri.encode(model.getId()) + "/" + register(model);
+    }
+
+    /** 發佈共用 Dataset 並回傳相對 URL（一份資料只傳一次，供多張圖表引用） */
+    public String publishDataset(Dataset dataset) {
+        Entry entry = publishedDatasets.get(dataset.getId());
+        if (entry == null || entry.owner != dataset) {
+            entry = new Entry(dataset, dataset.getRows(), dataset.getDimensions(), null,
+                    versions.incrementAndGet());
+            publishedDatasets.put(dataset.getId(), entry);
+        }
+        return "/" + DATASET_SEGMENT + "/" + Uri.encode(dataset.getId()) + "/" + entry.version;
+    }
+
+    private long register(ChartUIModel model) {
+        Entry entry = published.get(model.getId());
+        if (entry == null || entry.owner != model) {
+            entry = new Entry(model, model.getSource(), model.getDimensions(), model.getHeatmap(),
+                    versions.incrementAndGet());
+            published.put(model.getId(), entry);
+        }
+        return entry.version;
+    }
+
+    public void unpublish(String chartId) {
+        published.remove(chartId);
+    }
+
+    public void unpublishDataset(String datasetId) {
+        publishedDatasets.remove(datasetId);
+    }
+
+    public void clear() {
+        published.clear();
+        publishedDatasets.clear();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 攔截（背景執行緒）
+    // ─────────────────────────────────────────────────────────────
+
+    /** 非本主機的請求回傳 null，交由 WebView 正常載入（例如 ECharts CDN） */
+    public WebResourceResponse intercept(Uri url) {
+        if (url == null || !HOST.equals(url.getHost()))
+            return null;
+        List<String> segments = url.getPathSegments();
+        boolean wantsCompressed = "1".equals(url.getQueryParameter("z"));
+        if (segments.size() == 3 && DATA_SEGMENT.equals(segments.get(0)))
+            return serveData(published.get(segments.get(1)), segments.get(2), wantsCompressed);
+        if (segments.size() == 3 && DATASET_SEGMENT.equals(segments.get(0)))
+            return serveData(publishedDatasets.get(segments.get(1)), segments.get(2), wantsCompressed);
+        if (segments.size() == 6 && TILE_SEGMENT.equals(segments.get(0)))
+            return serveTile(segments.get(1), segments.get(2), segments.subList(3, 6));
+        if (segments.size() >= 2 && ASSETS_SEGMENT.equals(segments.get(0)))
+            return serveAsset(url.getPath().substring(ASSETS_SEGMENT.length() + 2),
+                    url.getQueryParameter("v") != null);
+        return notFound();
+    }
+
+    private WebResourceResponse serveData(Entry entry, String version, boolean wantsCompressed) {
+        if (entry == null || !String.valueOf(entry.version).equals(version))
+            return notFound(); // 已被新版本取代或已移除
+
+        InputStream body = new DatasetStream(entry.rows, entry.dimensions);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        headers.put("X-Chart-Rows", String.valueOf(entry.rows.size()));
+        if (compress && wantsCompressed) {
+            body = new FastDeflaterStream(body);
+            headers.put("X-Chart-Encoding", "deflate");
+        }
+        return new WebResourceResponse("application/x-ndjson", "utf-8", 200, "OK", headers, body);
+    }
+
+    private WebResourceResponse serveTile(String chartId, String version, List<String> coords) {
+        Entry entry = published.get(chartId);
+        if (entry == null || !String.valueOf(entry.version).equals(version) || entry.heatmap == null)
+            return notFound();
+
+        HeatmapGrid grid = entry.heatmap;
+        int level;
+        int tx;
+        int ty;
+        try {
+            level = Integer.parseInt(coords.get(0));
+            tx = Integer.parseInt(coords.get(1));
+            ty = Integer.parseInt(coords.get(2));
+        } catch (NumberFormatException e) {
+            return notFound();
+        }
+        int span = grid.getTileSize() << level;
+        if (level < 0 || level > grid.getMaxLevel() || tx < 0 || ty < 0
+                || (long) tx * span >= grid.getWidth() || (long) ty * span >= grid.getHeight())
+            return notFound();
+
+        ByteBuffer tile = ByteBuffer.allocate(grid.tileBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        grid.writeTile(level, tx, ty, tile);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        return new WebResourceResponse("application/octet-stream", null, 200, "OK", headers,
+                new ByteArrayInputStream(tile.array()));
+    }
+
+    private WebResourceResponse serveAsset(String path, boolean versioned) {
+        try {
+            InputStream in = assets.open(path);
+            if (path.endsWith(".html"))
+                in = injectModules(in);
+            if (!versioned)
+                return new WebResourceResponse(mimeTypeOf(path), "utf-8", in);
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Cache-Control", "public, max-age=31536000, immutable");
+            return new WebResourceResponse(mimeTypeOf(path), "utf-8", 200, "OK", headers, in);
+        } catch (IOException e) {
+            Log.w(TAG, "asset not found: " + path);
+            return notFound();
+        }
+    }
+
+    /** 讀入頁面並插入 preset 模組標籤（頁面只有數十 KB） */
+    private static InputStream injectModules(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream page = in) {
+            byte[] buffer = new byte[8192];
+            for (int n; (n = page.read(buffer)) > 0;)
+                out.write(buffer, 0, n);
+        }
+        String html = ChartPresetRegistry.injectModules(out.toString(StandardCharsets.UTF_8.name()));
+        return new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static WebResourceResponse notFound() {
+        return new WebResourceResponse("text/plain", "utf-8", 404, "Not Found",
+                new HashMap<>(), new ByteArrayInputStream(new byte[0]));
+    }
+
+    private static String mimeTypeOf(String path) {
+        if (path.endsWith(".html"))
+            return "text/html";
+        if (path.endsWith(".js"))
+            return "application/javascript";
+        if (path.endsWith(".css"))
+            return "text/css";
+        if (path.endsWith(".json"))
+            return "application/json";
+        return "application/octet-stream";
+    }
+
+    /** BEST_SPEED 的 zlib 串流；關閉時釋放 native Deflater */
+    private static final class FastDeflaterStream extends DeflaterInputStream {
+        private final Deflater deflater;
+
+        FastDeflaterStream(InputStream in) {
+            this(in, new Deflater(Deflater.BEST_SPEED));
+        }
+
+        private FastDeflaterStream(InputStream in, Deflater deflater) {
+            super(in, deflater, DatasetStream.BUFFER_BYTES);
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.util.LruCache;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+
+import org.json.JSONException;
+
+/**
+ * ChartPayloadCache — renderChart(...) 字串快取
+ *
+ * 回收式儀表板（RecyclerView）中，同一張圖表會隨捲動反覆 bind 到不同的 WebView。
+ * 以 chartId 為 key 快取序列化結果，只要 ChartUIModel 實例沒變就直接重用，
+ * 避免每次 bind 都重新序列化整個 dataset。
+ * 共用 Dataset 的 registerDataset 字串另以 "dataset:" + datasetId 為 key 快取。
+ *
+ * 容量以字元數計算（LRU 淘汰）。
+ */
+public class ChartPayloadCache {
+
+    private static final class Entry {
+        final Object owner; // ChartUIModel 或 Dataset
+        final String script;
+
+        Entry(Object owner, String script) {
+            this.owner = owner;
+            this.script = script;
+        }
+    }
+
+    private final LruCache<String, Entry> cache;
+
+    /**
+     * @param maxChars 快取上限（字元數），例如 8 * 1024 * 1024
+     */
+    public ChartPayloadCache(int maxChars) {
+        this.cache = new LruCache<String, Entry>(maxChars) {
+            @Override
+            protected int sizeOf(String key, Entry value) {
+                return value.script.length();
+            }
+        };
+    }
+
+    /**
+     * 取得圖表的 renderChart 呼叫字串（引用 Dataset 的圖表為 renderChartRef）；
+     * 快取未命中或 model 已更新時重新序列化。
+     */
+    public String get(ChartUIModel model) throws JSONException {
+        Entry entry = cache.get(model.getId());
+        if (entry != null && entry.owner == model)
+            return entry.script;
+        String script = model.getDataset() != null
+                ? ChartPayloadSerializer.buildRenderRefScript(model)
+                : ChartPayloadSerializer.buildRenderScript(model);
+        cache.put(model.getId(), new Entry(model, script));
+        return script;
+    }
+
+    /** 取得共用資料的 registerDataset 呼叫字串；Dataset 實例更換時重新序列化 */
+    public String getDataset(Dataset dataset) throws JSONException {
+        String key = "dataset:" + dataset.getId();
+        Entry entry = cache.get(key);
+        if (entry != null && entry.owner == dataset)
+            return entry.script;
+        String script = ChartPayloadSerializer.buildDatasetScript(dataset);
+        cache.put(key, new Entry(dataset, script));
+        return script;
+    }
+
+    public void invalidate(String chartId) {
+        cache.remove(chartId);
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+}
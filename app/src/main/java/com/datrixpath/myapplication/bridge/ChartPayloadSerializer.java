@@ -0,0 +1,277 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.chart.ChartPresetRegistry;
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+import com.datrixpath.myapplication.model.HeatmapGrid;
+import com.datrixpath.myapplication.model.PointGridIndex;
+import com.datrixpath.myapplication.model.SeriesOverlay;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ChartPayloadSerializer — ChartUIModel → JS 呼叫字串
+ *
+ * 由 ChartWebViewManager 抽出的序列化邏輯，不依賴 WebView，
+ * 因此可以在 JVM 單元測試中直接量測 payload 大小與耗時。
+ *
+ * 產出格式：
+ *
+ * <pre>
+ * renderChart('chartId', 'dataJson', 'configJson');
+ * renderChartStream('chartId', '/data/chartId/3', 'configJson'); // 大型 source，見 ChartDataServer
+ * renderHeatmap('chartId', '/tile/chartId/4', 'configJson'); // HeatmapGrid，依可見範圍載入 tile
+ * registerDataset('datasetId', 'dataJson'); // 共用 Dataset，每頁只送一次
+ * renderChartRef('chartId', 'datasetId', 'configJson'); // 引用已送出的 Dataset
+ * appendChartData('chartId', 'rowsJson'); // 即時序列只推送新的點（見 stats.LiveSeries）
+ * setRenderProfile('chartId', 'renderJson'); // 即時序列點數跨過門檻時重新套用 RenderProfile
+ * showPointSelection('chartId', 'summary'); // 空間索引散佈圖的框選 / 點選結果
+ * </pre>
+ */
+public final class ChartPayloadSerializer {
+
+    private ChartPayloadSerializer() {
+    }
+
+    /**
+     * 組出單一圖表的 renderChart(...) 呼叫字串；source 依 ChartPresetRegistry 的資料形狀裁剪欄位
+     */
+    public static String buildRenderScript(ChartUIModel model) throws JSONException {
+        String dataJson = sourceToJson(ChartPresetRegistry.shape(model));
+        String configJson = configToJson(model);
+        return "renderChart("
+                + "'" + escapeForJs(model.getId()) + "',"
+                + "'" + escapeForJs(dataJson) + "',"
+                + "'" + escapeForJs(configJson) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出串流圖表的 renderChartStream(...) 呼叫字串；資料由頁面自行 fetch(dataUrl)
+     */
+    public static String buildStreamScript(ChartUIModel model, String dataUrl) throws JSONException {
+        return "renderChartStream("
+                + "'" + escapeForJs(model.getId()) + "',"
+                + "'" + escapeForJs(dataUrl) + "',"
+                + "'" + escapeForJs(configToJson(model)) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出熱力圖的 renderHeatmap(...) 呼叫字串；格點 tile 由頁面依可見範圍 fetch(tileUrl/...)
+     */
+    public static String buildHeatmapScript(ChartUIModel model, String tileUrl) throws JSONException {
+        return "renderHeatmap("
+                + "'" + escapeForJs(model.getId()) + "',"
+                + "'" + escapeForJs(tileUrl) + "',"
+                + "'" + escapeForJs(configToJson(model)) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出共用資料的 registerDataset(...) 呼叫字串（頁面保存一份，多張圖表以 id 引用）
+     */
+    public static String buildDatasetScript(Dataset dataset) throws JSONException {
+        return "registerDataset("
+                + "'" + escapeForJs(dataset.getId()) + "',"
+                + "'" + escapeForJs(sourceToJson(dataset.getRows())) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出大型共用資料的 registerDatasetStream(...) 呼叫字串；頁面在第一張圖表建構時才 fetch(dataUrl)
+     */
+    public static String buildDatasetStreamScript(Dataset dataset, String dataUrl) {
+        return "registerDatasetStream("
+                + "'" + escapeForJs(dataset.getId()) + "',"
+                + "'" + escapeForJs(dataUrl) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出引用共用資料的 renderChartRef(...) 呼叫字串（不含任何 row）
+     */
+    public static String buildRenderRefScript(ChartUIModel model) throws JSONException {
+        return "renderChartRef("
+                + "'" + escapeForJs(model.getId()) + "',"
+                + "'" + escapeForJs(model.getDataset().getId()) + "',"
+                + "'" + escapeForJs(configToJson(model)) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出 releaseDataset(...) 呼叫字串（最後一張引用的圖表移除後釋放頁面端資料）
+     */
+    public static String buildReleaseDatasetScript(String datasetId) {
+        return "releaseDataset('" + escapeForJs(datasetId) + "');";
+    }
+
+    /**
+     * 組出連動篩選的 updateChartData(...) 呼叫字串（只換資料，沿用既有 config）
+     */
+    public static String buildUpdateScript(String chartId, List<Map<String, Object>> rows) throws JSONException {
+        return "updateChartData("
+                + "'" + escapeForJs(chartId) + "',"
+                + "'" + escapeForJs(sourceToJson(rows)) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出即時序列的 appendChartData(...) 呼叫字串（只含新的點，頁面附加後依 live.maxRows 移出舊點）
+     */
+    public static String buildAppendScript(String chartId, List<Map<String, Object>> rows) throws JSONException {
+        return "appendChartData("
+                + "'" + escapeForJs(chartId) + "',"
+                + "'" + escapeForJs(sourceToJson(rows)) + "'"
+                + ");";
+    }
+
+    /**
+     * 組出 setRenderProfile(...) 呼叫字串（即時序列成長後改用新的 RenderProfile，不重送資料）
+     */
+    public static String buildRenderProfileScript(String chartId, RenderProfile profile) throws JSONException {
+        return "setRenderProfile("
+                + "'" + escapeForJs(chartId) + "',"
+                + "'" + escapeForJs(profile.toJson().toString()) + "'"
+                + ");";
+    }
+
+    /**
+     * 將 List<Map> 轉為 JSON 陣列字串（ECharts dataset.source 格式）
+     */
+    public static String sourceToJson(List<Map<String, Object>> source) throws JSONException {
+        JSONArray arr = new JSONArray();
+        for (Map<String, Object> row : source) {
+            arr.put(new JSONObject(row));
+        }
+        return arr.toString();
+    }
+
+    /**
+     * 將 ChartUIModel 的配置部分轉為 configJson
+     * 結構：{ type, title, encode, dimensions, stackField, crossFilter, heatmap, points, overlays, live, render, options }
+     *
+     * @throws IllegalArgumentException type 未登記或缺少 preset 必要欄位（ChartPresetRegistry.validate）
+     */
+    public static String configToJson(ChartUIModel model) throws JSONException {
+        ChartPresetRegistry.validate(model);
+        JSONObject cfg = new JSONObject();
+        cfg.put("type", model.getType());
+        cfg.put("title", model.getTitle() != null ? model.getTitle() : "");
+
+        // encode
+        JSONObject encodeObj = new JSONObject();
+        if (model.getEncode() != null) {
+            for (Map.Entry<String, String> entry : model.getEncode().entrySet()) {
+                encodeObj.put(entry.getKey(), entry.getValue());
+            }
+        }
+        cfg.put("encode", encodeObj);
+
+        // dimensions（可選）
+        if (model.getDimensions() != null && !model.getDimensions().isEmpty()) {
+            JSONArray dims = new JSONArray();
+            for (String d : model.getDimensions())
+                dims.put(d);
+            cfg.put("dimensions", dims);
+        }
+
+        // stackField（★ 堆疊分組欄位，可選）
+        if (model.getStackField() != null && !model.getStackField().isEmpty()) {
+            cfg.put("stackField", model.getStackField());
+        }
+
+        // crossFilter（可選：點選時回呼 Android.onChartSelect）
+        if (model.getCrossFilterSource() != null) {
+            cfg.put("crossFilter", true);
+        }
+
+        // heatmap（格點模式：尺寸、軸標籤、tile 大小與預先計算的 min / max）
+        if (model.getHeatmap() != null) {
+            cfg.put("heatmap", heatmapToJson(model.getHeatmap()));
+        }
+
+        // points（空間索引散佈圖：範圍與密度上限；框選 / 點選回呼 Android 查詢）
+        if (model.getPoints() != null) {
+            cfg.put("points", pointsToJson(model.getPoints()));
+        }
+
+        // overlays（疊加系列：衍生欄位已在 source 中，JS 端只加上對應的線）
+        if (!model.getOverlays().isEmpty()) {
+            JSONArray overlays = new JSONArray();
+            for (SeriesOverlay o : model.getOverlays()) {
+                JSONObject obj = new JSONObject();
+                obj.put("field", o.getField());
+                obj.put("name", o.getName());
+                obj.put("band", o.getStyle() == SeriesOverlay.Style.BAND);
+                overlays.put(obj);
+            }
+            cfg.put("overlays", overlays);
+        }
+
+        // live（即時序列：頁面保留的最大點數）
+        if (model.isLive()) {
+            cfg.put("live", new JSONObject().put("maxRows", model.getLiveMaxRows()));
+        }
+
+        // render（依資料量自動選擇的渲染設定，見 RenderProfile）
+        cfg.put("render", RenderProfile.classify(model).toJson());
+
+        // options（可選的個性化覆寫；JS 端在 render 之後合併，因此優先）
+        if (model.getOptions() != null) {
+            cfg.put("options", new JSONObject(model.getOptions()));
+        }
+
+        return cfg.toString();
+    }
+
+    private static JSONObject heatmapToJson(HeatmapGrid grid) throws JSONException {
+        JSONObject obj = new JSONObject();
+        obj.put("width", grid.getWidth());
+        obj.put("height", grid.getHeight());
+        obj.put("tileSize", grid.getTileSize());
+        obj.put("maxLevel", grid.getMaxLevel());
+        obj.put("min", (double) grid.getMin());
+        obj.put("max", (double) grid.getMax());
+        obj.put("xLabels", new JSONArray(grid.getXLabels()));
+        obj.put("yLabels", new JSONArray(grid.getYLabels()));
+        return obj;
+    }
+
+    private static JSONObject pointsToJson(PointGridIndex index) throws JSONException {
+        JSONObject obj = new JSONObject();
+        obj.put("count", index.getPointCount());
+        obj.put("minX", (double) index.getMinX());
+        obj.put("maxX", (double) index.getMaxX());
+        obj.put("minY", (double) index.getMinY());
+        obj.put("maxY", (double) index.getMaxY());
+        obj.put("maxCount", index.getDensityMax());
+        return obj;
+    }
+
+    /**
+     * 組出 showPointSelection(...) 呼叫字串（框選 / 點選結果摘要，空字串 = 清除）
+     */
+    public static String buildPointSelectionScript(String chartId, String summary) {
+        return "showPointSelection("
+                + "'" + escapeForJs(chartId) + "',"
+                + "'" + escapeForJs(summary) + "'"
+                + ");";
+    }
+
+    /**
+     * 轉義 JSON 字串中可能破壞 JS 呼叫的字元
+     */
+    public static String escapeForJs(String json) {
+        return json
+                .replace("\\", "\\\\")
+                .replace("'", "\\'")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+}
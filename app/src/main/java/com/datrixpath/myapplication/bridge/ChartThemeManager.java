@@ -0,0 +1,192 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.content.res.Configuration;
+import android.webkit.WebView;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * ChartThemeManager — 圖表主題管理（日 / 夜間模式）
+ *
+ * 主題不再烘焙進每個圖表的 option，而是以 echarts.registerTheme 在頁面註冊一次：
+ * 1. 頁面就緒時，一次送出所有主題（registerChartThemes）
+ * 2. 系統夜間模式改變時，只送出一則 applyChartTheme('light' | 'dark')
+ * → JS 端以快取的 option 重建所有實例，不重送任何 dataset
+ *
+ * 由 ChartWebViewManager 持有，Activity 只需轉交 onConfigurationChanged。
+ * 畫面不可見（pause）期間的切換只記錄結果，resume 時併入同一批訊息送出。
+ *
+ * 主題 token 只定義在這裡（頁面的 globalTheme 初始為空，等待 registerChartThemes）。
+ * setOverrides() 的覆寫（例如品牌色）由頁面疊加在每個主題之上，切換主題不會遺失；
+ * 頁面重新載入時也會隨主題一起重送。
+ */
+public class ChartThemeManager {
+
+    public static final String THEME_DARK = "dark";
+    public static final String THEME_LIGHT = "light";
+
+    private final WebView webView;
+    private boolean pageReady = false;
+    private boolean paused = false;
+    private boolean themePending = false;
+    private String currentTheme;
+    private final JSONObject overrides = new JSONObject();
+    private boolean overridesPending = false;
+
+    public ChartThemeManager(WebView webView, Configuration configuration) {
+        this.webView = webView;
+        this.currentTheme = themeFor(configuration);
+    }
+
+    /** 目前套用中的主題名稱 */
+    public String getCurrentTheme() {
+        return currentTheme;
+    }
+
+    /**
+     * 頁面（重新）載入完成：註冊所有主題並套用目前主題。
+     */
+    public void onPageReady() {
+        pageReady = true;
+        themePending = false; // 以下即送出目前主題與覆寫
+        overridesPending = false;
+        String js = "registerChartThemes('" + ChartPayloadSerializer.escapeForJs(themesJson()) + "');";
+        if (overrides.length() > 0)
+            js += overridesScript();
+        webView.evaluateJavascript(js + "applyChartTheme('" + currentTheme + "');", null);
+    }
+
+    /**
+     * 覆寫部分 token（與既有覆寫深層合併），套用於所有主題。
+     * 例如 {"palette": [...]} 或 {"textColor": "#fff"}。
+     */
+    public void setOverrides(JSONObject tokens) {
+        try {
+            deepMerge(overrides, tokens);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+        if (paused)
+            overridesPending = true;
+        else if (pageReady)
+            webView.evaluateJavascript(overridesScript(), null);
+    }
+
+    /**
+     * 系統設定改變（含夜間模式切換）。主題相同時不送任何訊息。
+     */
+    public void onConfigurationChanged(Configuration configuration) {
+        setTheme(themeFor(configuration));
+    }
+
+    /** 手動切換主題：單一 bridge 訊息，無資料傳輸 */
+    public void setTheme(String theme) {
+        if (theme.equals(currentTheme))
+            return;
+        currentTheme = theme;
+        if (paused)
+            themePending = true;
+        else if (pageReady)
+            webView.evaluateJavascript("applyChartTheme('" + theme + "');", null);
+    }
+
+    /** 畫面不可見：之後的主題切換延後到 resume */
+    void pause() {
+        paused = true;
+    }
+
+    /** 回到前景：回傳暫停期間需要補送的 setGlobalTheme / applyChartTheme 呼叫（沒有則為空字串） */
+    String resume() {
+        paused = false;
+        if (!pageReady)
+            return "";
+        String js = overridesPending ? overridesScript() : "";
+        if (themePending)
+            js += "applyChartTheme('" + currentTheme + "');";
+        themePending = false;
+        overridesPending = false;
+        return js;
+    }
+
+    private String overridesScript() {
+        return "setGlobalTheme('" + ChartPayloadSerializer.escapeForJs(overrides.toString()) + "');";
+    }
+
+    /** 所有主題的 token（registerChartThemes 的參數） */
+    static String themesJson() {
+        try {
+            JSONObject themes = new JSONObject();
+            themes.put(THEME_DARK, darkTokens());
+            themes.put(THEME_LIGHT, lightTokens());
+            return themes.toString();
+        } catch (JSONException e) {
+            // 主題 token 為固定常數，不會發生
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 與頁面 deepMerge 相同：物件遞迴合併，陣列與純值直接取代 */
+    private static void deepMerge(JSONObject target, JSONObject source) throws JSONException {
+        Iterator<String> keys = source.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = source.get(key);
+            Object existing = target.opt(key);
+            if (value instanceof JSONObject && existing instanceof JSONObject)
+                deepMerge((JSONObject) existing, (JSONObject) value);
+            else if (value instanceof JSONObject)
+                target.put(key, new JSONObject(value.toString()));
+            else
+                target.put(key, value);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 主題 token（唯一來源；頁面的 globalTheme 由此填入）
+    // ─────────────────────────────────────────────────────────────
+
+    private static String themeFor(Configuration configuration) {
+        if (configuration == null)
+            return THEME_DARK;
+        int night = configuration.uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        return night == Configuration.UI_MODE_NIGHT_YES ? THEME_DARK : THEME_LIGHT;
+    }
+
+    private static JSONObject darkTokens() throws JSONException {
+        JSONObject t = new JSONObject();
+        t.put("backgroundColor", "transparent");
+        t.put("textColor", "#cbd5e1");
+        t.put("axisLineColor", "rgba(255,255,255,0.15)");
+        t.put("splitLineColor", "rgba(255,255,255,0.06)");
+        t.put("tooltipBackgroundColor", "rgba(15,17,23,0.92)");
+        t.put("tooltipBorderColor", "rgba(255,255,255,0.1)");
+        t.put("tooltipTextColor", "#f1f5f9");
+        t.put("palette", palette());
+        return t;
+    }
+
+    private static JSONObject lightTokens() throws JSONException {
+        JSONObject t = new JSONObject();
+        t.put("backgroundColor", "transparent");
+        t.put("textColor", "#334155");
+        t.put("axisLineColor", "rgba(15,23,42,0.2)");
+        t.put("splitLineColor", "rgba(15,23,42,0.08)");
+        t.put("tooltipBackgroundColor", "rgba(255,255,255,0.96)");
+        t.put("tooltipBorderColor", "rgba(15,23,42,0.1)");
+        t.put("tooltipTextColor", "#0f172a");
+        t.put("palette", palette());
+        return t;
+    }
+
+    private static JSONArray palette() {
+        JSONArray p = new JSONArray();
+        for (String c : new String[] { "#6366f1", "#22d3ee", "#f59e0b", "#10b981", "#f43f5e",
+                "#a78bfa", "#34d399", "#fb923c", "#60a5fa", "#e879f9" })
+            p.put(c);
+        return p;
+    }
+}
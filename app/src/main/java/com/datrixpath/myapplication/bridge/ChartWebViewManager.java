@@ -1,20 +1,40 @@
 package com.datrixpath.myapplication.bridge;
 
 import android.annotation.SuppressLint;
+import android.content.res.Configuration;
 import android.webkit.JavascriptInterface;
 import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebSettings;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.datrixpath.myapplication.filter.CrossFilterEngine;
 import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+import com.datrixpath.myapplication.model.PointGridIndex;
 
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ChartWebViewManager — WebView 封裝管理器 (JS Bridge)
@@ -23,22 +43,96 @@ import java.util.Map;
  * 1. 初始化 WebView 並設定所有必要的 WebSettings
  * 2. 載入 assets/echarts_factory.html
  * 3. 在頁面就緒後，將 ChartUIModel 序列化並透過 evaluateJavascript 傳入 JS
+ *    （序列化細節見 ChartPayloadSerializer）
  * 4. 提供 Android Interface（@JavascriptInterface）供 JS 主動回呼 Android
+ * 5. 透過 ChartThemeManager 管理日 / 夜間主題（切換時不重送資料）
+ * 6. 透過 CrossFilterEngine 處理圖表間的連動篩選（只推送受影響圖表的資料）；
+ *    索引建立與重算都在篩選執行緒，連續點選合併為一次重算
+ * 7. 大型 source 透過 ChartDataServer 以虛擬 URL 串流，不組成 JS 字串常值
+ *    （熱力圖格點則以 tile 傳送，只載入可見範圍）
+ * 8. 共用 Dataset 每頁只送一次，由 DatasetRegistry 引用計數，最後一張圖表移除時才釋放
+ * 9. 作為 LifecycleObserver：onStop 暫停 WebView 與計時器，期間只保留每張圖表的最新狀態，
+ *    onStart 時以單一 evaluateJavascript 送出
+ * 10. 即時序列（ChartUIModel.live）以 appendPoints 只推送新的點，頁面附加後移出舊點
+ * 11. 空間索引散佈圖（ChartUIModel.points）只送密度圖；框選 / 點選回呼後在篩選執行緒以
+ *     PointGridIndex 查詢（新的框選會中止舊的查詢），結果交給 PointSelectionListener，摘要顯示在圖表上
  *
  * 使用方式（在 Activity / Fragment 中）：
  * 
  * <pre>
  * ChartWebViewManager manager = new ChartWebViewManager(webView, this);
  * manager.init();
+ * getLifecycle().addObserver(manager); // 背景時暫停，回到前景再一次送出
  * // 等待 LiveData 有資料後：
  * manager.renderCharts(chartList);
  * </pre>
  */
-public class ChartWebViewManager {
+public class ChartWebViewManager implements DefaultLifecycleObserver {
 
     private final WebView webView;
     private final Callback callback;
+    private final ChartThemeManager themeManager;
+    private final CrossFilterEngine crossFilter = new CrossFilterEngine();
+    private final ChartDataServer dataServer;
+    private final DatasetRegistry datasets = new DatasetRegistry();
+    private final Map<String, ChartUIModel> rendered = new HashMap<>(); // 頁面上目前的 model 實例
+    private final Map<String, Integer> livePoints = new HashMap<>(); // 即時序列在頁面上的點數（UI 執行緒）
+    // 頁面上的空間索引散佈圖（篩選執行緒查詢，因此使用 ConcurrentHashMap）
+    private final Map<String, PointGridIndex> pointIndexes = new ConcurrentHashMap<>();
+    // 每張散佈圖最新的框選；查詢開始前或進行中被取代時放棄（只有最後一個矩形有意義）
+    private final Map<String, PointBrush> latestBrushes = new ConcurrentHashMap<>();
+    private Executor filterExecutor = FILTER_EXECUTOR;
+    // JS 點選佇列（JavaBridge 執行緒加入，篩選執行緒取出）；scheduled = 已排入一次 drainSelections
+    private final ConcurrentLinkedQueue<String[]> pendingSelections = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean selectionScheduled = new AtomicBoolean(false);
+    // 已切換但尚未重算的來源 → 發起點選的圖表（只在篩選執行緒存取）
+    private final Map<String, Set<String>> selectionOrigins = new LinkedHashMap<>();
+    private PointSelectionListener pointListener = null;
+    private int maxSelectedIds = DEFAULT_MAX_SELECTED_IDS;
+    private ChartPayloadCache payloadCache = null;
+    private int streamThreshold = ChartDataServer.DEFAULT_STREAM_MIN_ROWS;
     private boolean pageReady = false;
+    private boolean paused = false;
+
+    // 暫停期間的待送狀態（UI 執行緒）：chartId → 最新 model（null = 移除）、連動篩選結果、即時序列的新點
+    private final Map<String, ChartUIModel> pendingCharts = new LinkedHashMap<>();
+    private final Map<String, String> pendingUpdates = new LinkedHashMap<>();
+    private final Map<String, ArrayDeque<Map<String, Object>>> pendingAppends = new LinkedHashMap<>();
+    private boolean pendingClear = false;
+
+    /** 框選結果最多回傳的 row id 數（點數與平均不受影響） */
+    public static final int DEFAULT_MAX_SELECTED_IDS = 100_000;
+
+    /** 一次框選的矩形（資料座標）；以實例識別判斷是否已被新的框選取代 */
+    private static final class PointBrush {
+        final double x0, x1, y0, y1;
+
+        PointBrush(double x0, double x1, double y0, double y1) {
+            this.x0 = x0;
+            this.x1 = x1;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+    }
+
+    /**
+     * 連動篩選的預設執行緒：所有 manager 共用一條 daemon 執行緒（點選由使用者觸發，不需平行），
+     * 回收式儀表板建立多個 WebView 時也不會多開執行緒。
+     */
+    private static final ExecutorService FILTER_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chart-filter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** 空間索引散佈圖的選取結果（UI 執行緒） */
+    public interface PointSelectionListener {
+        /**
+         * 框選或點選完成。
+         * 點選時 selection 最多一個點；沒有命中時為 PointGridIndex.Selection.EMPTY。
+         */
+        void onPointsSelected(String chartId, PointGridIndex.Selection selection);
+    }
 
     /** 與 View 層的通訊介面 */
     public interface Callback {
@@ -52,6 +146,66 @@ public class ChartWebViewManager {
     public ChartWebViewManager(WebView webView, Callback callback) {
         this.webView = webView;
         this.callback = callback;
+        this.themeManager = new ChartThemeManager(webView,
+                webView.getContext().getResources().getConfiguration());
+        this.dataServer = new ChartDataServer(webView.getContext().getAssets());
+    }
+
+    /**
+     * 設定共用的 payload 快取（可選）。多個 WebView 渲染同一批圖表時（回收式儀表板），
+     * 共用快取可避免重複序列化。
+     */
+    public void setPayloadCache(ChartPayloadCache payloadCache) {
+        this.payloadCache = payloadCache;
+    }
+
+    /**
+     * source row 數達到此門檻的圖表改以 /data/{chartId}/{version} 串流；
+     * Integer.MAX_VALUE = 一律內嵌於 renderChart 字串。
+     */
+    public void setStreamThreshold(int rows) {
+        this.streamThreshold = rows;
+    }
+
+    public void setPointSelectionListener(PointSelectionListener listener) {
+        this.pointListener = listener;
+    }
+
+    /**
+     * 執行連動篩選（建索引、重算聚合）與散佈圖框選 / 點選查詢的執行緒；預設為共用的 "chart-filter" 執行緒。
+     * 測試可傳入同步執行的 Executor。
+     */
+    public void setFilterExecutor(Executor executor) {
+        this.filterExecutor = executor;
+    }
+
+    /** 框選結果最多回傳的 row id 數；預設 DEFAULT_MAX_SELECTED_IDS */
+    public void setMaxSelectedIds(int maxSelectedIds) {
+        this.maxSelectedIds = maxSelectedIds;
+    }
+
+    public ChartDataServer getDataServer() {
+        return dataServer;
+    }
+
+    public boolean isPageReady() {
+        return pageReady;
+    }
+
+    public CrossFilterEngine getCrossFilter() {
+        return crossFilter;
+    }
+
+    public ChartThemeManager getThemeManager() {
+        return themeManager;
+    }
+
+    /**
+     * 由 Activity.onConfigurationChanged 轉交（需在 Manifest 宣告 configChanges="uiMode"）。
+     * 夜間模式切換只會送出一則 applyChartTheme 訊息。
+     */
+    public void onConfigurationChanged(Configuration newConfig) {
+        themeManager.onConfigurationChanged(newConfig);
     }
 
     // ─────────────────────────────────────────────────────────────
@@ -66,7 +220,7 @@ public class ChartWebViewManager {
         settings.setJavaScriptEnabled(true);
         settings.setDomStorageEnabled(true);
 
-        // 允許從 file:// 頁面存取網路資源（載入 ECharts CDN）
+        // 頁面由 ChartDataServer 以 https 虛擬主機提供；仍允許混合內容以相容既有 CDN 設定
         settings.setMixedContentMode(WebSettings.MIXED_CONTENT_ALWAYS_ALLOW);
 
         // 效能優化
@@ -82,10 +236,23 @@ public class ChartWebViewManager {
             public void onPageFinished(WebView view, String url) {
                 super.onPageFinished(view, url);
                 pageReady = true;
+                // 新載入的頁面沒有任何圖表 / Dataset
+                rendered.clear();
+                livePoints.clear();
+                pointIndexes.clear();
+                latestBrushes.clear();
+                datasets.clear();
+                themeManager.onPageReady();
                 if (callback != null)
                     callback.onPageReady();
             }
 
+            @Override
+            public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+                // 背景執行緒：頁面與 /data/... 由 ChartDataServer 提供，其餘照常載入
+                return dataServer.intercept(request.getUrl());
+            }
+
             @Override
             public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
                 // 攔截站外跳轉，一律由 WebView 內部處理
@@ -93,118 +260,370 @@ public class ChartWebViewManager {
             }
         });
 
-        // 載入工廠 HTML
-        webView.loadUrl("file:///android_asset/echarts_factory.html");
+        // 載入工廠 HTML（與資料 URL 同源，fetch 才能讀取串流）
+        webView.loadUrl(ChartDataServer.PAGE_URL);
     }
 
     // ─────────────────────────────────────────────────────────────
     // 渲染圖表（對每個 ChartUIModel 呼叫一次 JS renderChart）
     // ─────────────────────────────────────────────────────────────
 
+    /**
+     * 渲染整份清單；與頁面上同一實例的圖表直接略過，
+     * 因此自動更新送來的新清單只會送出資料真的變更的圖表。
+     */
     public void renderCharts(List<ChartUIModel> charts) {
         if (!pageReady)
             return;
         for (ChartUIModel model : charts) {
-            renderSingleChart(model);
+            if (rendered.get(model.getId()) != model)
+                renderSingleChart(model);
         }
     }
 
     public void renderSingleChart(ChartUIModel model) {
         if (!pageReady)
             return;
-
-        try {
-            String dataJson = sourceToJson(model.getSource());
-            String configJson = configToJson(model);
-            String js = "renderChart("
-                    + "'" + escapeForJs(model.getId()) + "',"
-                    + "'" + escapeForJs(dataJson) + "',"
-                    + "'" + escapeForJs(configJson) + "'"
-                    + ");";
-            webView.evaluateJavascript(js, null);
-        } catch (JSONException e) {
-            if (callback != null)
-                callback.onError("序列化失敗: " + e.getMessage());
+        if (paused) {
+            defer(model.getId(), model);
+            return;
         }
+        StringBuilder js = new StringBuilder();
+        appendRender(js, model);
+        evaluate(js);
     }
 
     /** 移除指定圖表 */
     public void removeChart(String chartId) {
         if (!pageReady)
             return;
-        webView.evaluateJavascript("removeChart('" + chartId + "');", null);
+        if (paused) {
+            defer(chartId, null);
+            return;
+        }
+        StringBuilder js = new StringBuilder();
+        appendRemove(js, chartId);
+        evaluate(js);
+    }
+
+    /**
+     * 即時序列推送新的點（通常來自 stats.LiveSeries.append）。
+     * 只送新的 row，頁面附加後依 live.maxRows 移出最舊的點，不重建圖表。
+     * 暫停期間只保留每張圖表最後 maxRows 個點。
+     */
+    public void appendPoints(String chartId, List<Map<String, Object>> rows) {
+        if (!pageReady || rows.isEmpty())
+            return;
+        ChartUIModel model = rendered.get(chartId);
+        if (paused) {
+            ChartUIModel next = pendingCharts.containsKey(chartId) ? pendingCharts.get(chartId) : model;
+            if (next == null || !next.isLive())
+                return;
+            ArrayDeque<Map<String, Object>> queue = pendingAppends.get(chartId);
+            if (queue == null)
+                pendingAppends.put(chartId, queue = new ArrayDeque<>());
+            for (Map<String, Object> row : rows) {
+                if (queue.size() == next.getLiveMaxRows())
+                    queue.removeFirst();
+                queue.addLast(row);
+            }
+            return;
+        }
+        if (model == null || !model.isLive())
+            return; // 頁面上沒有此即時圖表
+        StringBuilder js = new StringBuilder();
+        appendRows(js, chartId, rows);
+        evaluate(js);
     }
 
     /** 清除所有圖表 */
     public void clearAll() {
         if (!pageReady)
             return;
-        webView.evaluateJavascript("clearAllCharts();", null);
+        if (paused) {
+            // 之前暫存的操作都會被清除覆蓋，只需記住「先清空」
+            pendingCharts.clear();
+            pendingUpdates.clear();
+            pendingAppends.clear();
+            pendingClear = true;
+            return;
+        }
+        StringBuilder js = new StringBuilder();
+        appendClear(js);
+        evaluate(js);
     }
 
     // ─────────────────────────────────────────────────────────────
-    // 序列化工具
+    // 生命週期（DefaultLifecycleObserver）
     // ─────────────────────────────────────────────────────────────
 
     /**
-     * 將 List<Map> 轉為 JSON 陣列字串（ECharts dataset.source 格式）
+     * 畫面不可見：暫停 WebView 與 JS 計時器（動畫、ResizeObserver、setTimeout 全部停止）。
+     * 之後的 render / remove / clear 不再送往頁面，只保留每張圖表最新的狀態。
      */
-    private String sourceToJson(List<Map<String, Object>> source) throws JSONException {
-        JSONArray arr = new JSONArray();
-        for (Map<String, Object> row : source) {
-            arr.put(new JSONObject(row));
-        }
-        return arr.toString();
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        if (paused)
+            return;
+        paused = true;
+        themeManager.pause();
+        webView.onPause();
+        webView.pauseTimers(); // 作用於整個行程的 WebView，onStart 時恢復
     }
 
-    /**
-     * 將 ChartUIModel 的配置部分轉為 configJson
-     * 結構：{ type, title, encode, dimensions, stackField, options }
-     */
-    private String configToJson(ChartUIModel model) throws JSONException {
-        JSONObject cfg = new JSONObject();
-        cfg.put("type", model.getType());
-        cfg.put("title", model.getTitle() != null ? model.getTitle() : "");
-
-        // encode
-        JSONObject encodeObj = new JSONObject();
-        if (model.getEncode() != null) {
-            for (Map.Entry<String, String> entry : model.getEncode().entrySet()) {
-                encodeObj.put(entry.getKey(), entry.getValue());
-            }
+    /** 畫面重新可見：恢復 WebView，並以單一 evaluateJavascript 送出暫存期間的最終狀態 */
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        if (!paused)
+            return;
+        paused = false;
+        webView.resumeTimers();
+        webView.onResume();
+        flushPending();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /** 同一張圖表的新操作取代舊操作（model == null 表示移除），並移到佇列尾端 */
+    private void defer(String chartId, ChartUIModel model) {
+        pendingCharts.remove(chartId);
+        pendingCharts.put(chartId, model);
+        pendingUpdates.remove(chartId); // 重新渲染 / 移除後，舊的篩選結果已無意義
+        pendingAppends.remove(chartId); // 新的快照已包含先前的點
+    }
+
+    private void flushPending() {
+        StringBuilder js = new StringBuilder(themeManager.resume());
+        if (!pageReady) {
+            evaluate(js);
+            return;
+        }
+        if (pendingClear)
+            appendClear(js);
+        for (Map.Entry<String, ChartUIModel> entry : pendingCharts.entrySet()) {
+            if (entry.getValue() != null)
+                appendRender(js, entry.getValue());
+            else
+                appendRemove(js, entry.getKey());
         }
-        cfg.put("encode", encodeObj);
+        for (String script : pendingUpdates.values())
+            js.append(script);
+        for (Map.Entry<String, ArrayDeque<Map<String, Object>>> entry : pendingAppends.entrySet())
+            appendRows(js, entry.getKey(), new ArrayList<>(entry.getValue()));
+        pendingClear = false;
+        pendingCharts.clear();
+        pendingUpdates.clear();
+        pendingAppends.clear();
+        evaluate(js);
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // JS 呼叫字串組裝
+    // ─────────────────────────────────────────────────────────────
 
-        // dimensions（可選）
-        if (model.getDimensions() != null && !model.getDimensions().isEmpty()) {
-            JSONArray dims = new JSONArray();
-            for (String d : model.getDimensions())
-                dims.put(d);
-            cfg.put("dimensions", dims);
+    private void appendRender(StringBuilder js, ChartUIModel model) {
+        rendered.put(model.getId(), model);
+        if (model.isLive())
+            livePoints.put(model.getId(), Math.min(model.getSource().size(), model.getLiveMaxRows()));
+        else
+            livePoints.remove(model.getId());
+        if (model.getPoints() != null)
+            pointIndexes.put(model.getId(), model.getPoints());
+        else
+            pointIndexes.remove(model.getId());
+        crossFilter.link(model);
+        if (model.getCrossFilterSource() != null) {
+            // 欄式表與索引在背景建立，第一次點選不需等待 O(rows) 的建置
+            String chartId = model.getId();
+            filterExecutor.execute(() -> crossFilter.prepare(chartId));
         }
+        Dataset dataset = model.getHeatmap() == null ? model.getDataset() : null;
+        appendRelease(js, datasets.bind(model.getId(), dataset));
+        try {
+            if (model.getHeatmap() != null)
+                js.append(ChartPayloadSerializer.buildHeatmapScript(model, dataServer.publishTiles(model)));
+            else if (dataset != null)
+                js.append(datasetScript(dataset)).append(payloadCache != null
+                        ? payloadCache.get(model)
+                        : ChartPayloadSerializer.buildRenderRefScript(model));
+            else if (model.getSource().size() >= streamThreshold)
+                js.append(ChartPayloadSerializer.buildStreamScript(model, dataServer.publish(model)));
+            else
+                js.append(payloadCache != null
+                        ? payloadCache.get(model)
+                        : ChartPayloadSerializer.buildRenderScript(model));
+        } catch (JSONException e) {
+            if (callback != null)
+                callback.onError("序列化失敗: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // type 未登記或缺少 preset 必要欄位：撤回上面已登記的狀態，頁面上同 id 的舊圖一併移除
+            appendRemove(js, model.getId());
+            if (callback != null)
+                callback.onError("圖表設定錯誤: " + e.getMessage());
+        }
+    }
+
+    private void appendRemove(StringBuilder js, String chartId) {
+        rendered.remove(chartId);
+        livePoints.remove(chartId);
+        pointIndexes.remove(chartId);
+        latestBrushes.remove(chartId);
+        crossFilter.unlink(chartId);
+        dataServer.unpublish(chartId);
+        js.append("removeChart('").append(chartId).append("');");
+        appendRelease(js, datasets.unbind(chartId));
+    }
 
-        // stackField（★ 堆疊分組欄位，可選）
-        if (model.getStackField() != null && !model.getStackField().isEmpty()) {
-            cfg.put("stackField", model.getStackField());
+    /** 附加即時序列的新點；點數跨過 RenderProfile 門檻時一併送出新的 profile */
+    private void appendRows(StringBuilder js, String chartId, List<Map<String, Object>> rows) {
+        try {
+            js.append(ChartPayloadSerializer.buildAppendScript(chartId, rows));
+            ChartUIModel model = rendered.get(chartId);
+            Integer before = livePoints.get(chartId);
+            if (model == null || before == null)
+                return;
+            int after = (int) Math.min((long) before + rows.size(), model.getLiveMaxRows());
+            livePoints.put(chartId, after);
+            RenderProfile profile = RenderProfile.classifyLive(model, after);
+            if (profile != RenderProfile.classifyLive(model, before))
+                js.append(ChartPayloadSerializer.buildRenderProfileScript(chartId, profile));
+        } catch (JSONException e) {
+            if (callback != null)
+                callback.onError("序列化失敗: " + e.getMessage());
         }
+    }
+
+    private void appendClear(StringBuilder js) {
+        rendered.clear();
+        livePoints.clear();
+        pointIndexes.clear();
+        latestBrushes.clear();
+        dataServer.clear();
+        datasets.clear();
+        js.append("clearAllCharts();");
+    }
 
-        // options（可選的個性化覆寫）
-        if (model.getOptions() != null) {
-            cfg.put("options", new JSONObject(model.getOptions()));
+    /** 頁面上尚無此 Dataset 實例時回傳 register 呼叫字串，否則回傳空字串 */
+    private String datasetScript(Dataset dataset) throws JSONException {
+        if (!datasets.needsSend(dataset))
+            return "";
+        String js;
+        if (dataset.getRows().size() >= streamThreshold)
+            js = ChartPayloadSerializer.buildDatasetStreamScript(dataset, dataServer.publishDataset(dataset));
+        else
+            js = payloadCache != null
+                    ? payloadCache.getDataset(dataset)
+                    : ChartPayloadSerializer.buildDatasetScript(dataset);
+        datasets.markSent(dataset);
+        return js;
+    }
+
+    private void appendRelease(StringBuilder js, String datasetId) {
+        if (datasetId == null)
+            return;
+        dataServer.unpublishDataset(datasetId);
+        js.append(ChartPayloadSerializer.buildReleaseDatasetScript(datasetId));
+    }
+
+    /**
+     * 篩選執行緒：逐一套用累積的點選（每次都是切換，不可略過），再對每個來源重算一次。
+     * 重算前若又有新的點選，交給下一次 drainSelections 合併處理，只推送最新的結果。
+     */
+    private void drainSelections() {
+        selectionScheduled.set(false);
+        for (String[] s; (s = pendingSelections.poll()) != null;) {
+            String sourceId = crossFilter.toggle(s[0], s[1], s[2]);
+            if (sourceId != null)
+                selectionOrigins.computeIfAbsent(sourceId, k -> new LinkedHashSet<>()).add(s[0]);
         }
+        if (selectionOrigins.isEmpty() || !pendingSelections.isEmpty())
+            return;
 
-        return cfg.toString();
+        List<CrossFilterEngine.Update> updates = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : selectionOrigins.entrySet())
+            updates.addAll(crossFilter.recompute(entry.getKey(), entry.getValue()));
+        selectionOrigins.clear();
+        if (updates.isEmpty())
+            return;
+        try {
+            Map<String, String> scripts = new LinkedHashMap<>();
+            for (CrossFilterEngine.Update u : updates)
+                scripts.put(u.chartId, ChartPayloadSerializer.buildUpdateScript(u.chartId, u.rows));
+            webView.post(() -> pushUpdates(updates, scripts));
+        } catch (JSONException e) {
+            if (callback != null)
+                webView.post(() -> callback.onError("連動篩選序列化失敗: " + e.getMessage()));
+        }
     }
 
     /**
-     * 轉義 JSON 字串中可能破壞 JS 呼叫的字元
+     * 連動篩選結果（UI 執行緒）：略過計算期間已移除或資料已更新的圖表；
+     * 暫停中只保留每張圖表最新的一筆。
      */
-    private String escapeForJs(String json) {
-        return json
-                .replace("\\", "\\\\")
-                .replace("'", "\\'")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
+    private void pushUpdates(List<CrossFilterEngine.Update> updates, Map<String, String> scripts) {
+        StringBuilder js = new StringBuilder();
+        for (CrossFilterEngine.Update u : updates) {
+            if (!crossFilter.isCurrent(u))
+                continue;
+            String script = scripts.get(u.chartId);
+            if (paused) {
+                pendingUpdates.remove(u.chartId);
+                pendingUpdates.put(u.chartId, script);
+            } else {
+                js.append(script);
+            }
+        }
+        evaluate(js);
+    }
+
+    /** 篩選執行緒：執行框選查詢；已被新的框選取代時（開始前或查詢中）直接放棄 */
+    private void runBrush(String chartId, PointBrush brush) {
+        PointGridIndex index = pointIndexes.get(chartId);
+        if (index == null || latestBrushes.get(chartId) != brush)
+            return;
+        PointGridIndex.Selection selection = index.queryRect(brush.x0, brush.x1, brush.y0, brush.y1,
+                maxSelectedIds, () -> latestBrushes.get(chartId) != brush);
+        if (selection == null)
+            return;
+        latestBrushes.remove(chartId, brush);
+        String summary = describeRect(selection);
+        webView.post(() -> deliverSelection(chartId, selection, summary));
+    }
+
+    /** 篩選執行緒：點選最近的點 */
+    private void runTap(String chartId, double x, double y, double rx, double ry) {
+        PointGridIndex index = pointIndexes.get(chartId);
+        if (index == null)
+            return;
+        int row = index.nearest(x, y, rx, ry);
+        PointGridIndex.Selection selection = row < 0
+                ? PointGridIndex.Selection.EMPTY
+                : index.selectRow(row);
+        String summary = row < 0 ? "" : String.format(Locale.getDefault(), "#%d (%.4g, %.4g)",
+                row, index.getX(row), index.getY(row));
+        webView.post(() -> deliverSelection(chartId, selection, summary));
+    }
+
+    /** 查詢結果（UI 執行緒）：交給 listener，並在圖表上顯示摘要；暫停中略過顯示 */
+    private void deliverSelection(String chartId, PointGridIndex.Selection selection, String summary) {
+        if (pointListener != null)
+            pointListener.onPointsSelected(chartId, selection);
+        if (!paused && pageReady && pointIndexes.containsKey(chartId))
+            webView.evaluateJavascript(ChartPayloadSerializer.buildPointSelectionScript(chartId, summary), null);
+    }
+
+    private static String describeRect(PointGridIndex.Selection s) {
+        if (s.getCount() == 0)
+            return String.format(Locale.getDefault(), "%,d 點", 0);
+        return String.format(Locale.getDefault(), "%,d 點 · 平均 (%.4g, %.4g)",
+                s.getCount(), s.getMeanX(), s.getMeanY());
+    }
+
+    private void evaluate(StringBuilder js) {
+        if (js.length() > 0)
+            webView.evaluateJavascript(js.toString(), null);
     }
 
     // ─────────────────────────────────────────────────────────────
@@ -223,6 +642,46 @@ public class ChartWebViewManager {
             }
         }
 
+        /**
+         * JS 端點選圖表元素（僅 crossFilter 圖表）
+         * 呼叫方式：window.Android.onChartSelect('chartId', 'channel', 'Online')
+         *
+         * 只把點選排入篩選執行緒（不在 JavaBridge 執行緒計算）；連續點選合併為一次重算，
+         * 點陣圖交集、聚合與序列化都在篩選執行緒完成，結果再 post 回 UI 執行緒。
+         */
+        @JavascriptInterface
+        public void onChartSelect(String chartId, String field, String value) {
+            pendingSelections.add(new String[] { chartId, field, value });
+            if (selectionScheduled.compareAndSet(false, true))
+                filterExecutor.execute(ChartWebViewManager.this::drainSelections);
+        }
+
+        /**
+         * JS 端在空間索引散佈圖上框選（資料座標）
+         * 呼叫方式：window.Android.onPointBrush('chartId', x0, x1, y0, y1)
+         *
+         * 與連動篩選相同，查詢排入篩選執行緒；拖曳中連續送出的矩形只有最後一個會完成查詢，
+         * 新的矩形會中止進行中的舊查詢。
+         */
+        @JavascriptInterface
+        public void onPointBrush(String chartId, double x0, double x1, double y0, double y1) {
+            if (!pointIndexes.containsKey(chartId))
+                return;
+            PointBrush brush = new PointBrush(x0, x1, y0, y1);
+            latestBrushes.put(chartId, brush);
+            filterExecutor.execute(() -> runBrush(chartId, brush));
+        }
+
+        /**
+         * JS 端在空間索引散佈圖上點選；rx / ry 為點選半徑換算成的資料座標
+         * 呼叫方式：window.Android.onPointTap('chartId', x, y, rx, ry)
+         */
+        @JavascriptInterface
+        public void onPointTap(String chartId, double x, double y, double rx, double ry) {
+            if (pointIndexes.containsKey(chartId))
+                filterExecutor.execute(() -> runTap(chartId, x, y, rx, ry));
+        }
+
         /**
          * JS 端發生錯誤時回報
          * 呼叫方式：window.Android.onError('message')
@@ -0,0 +1,214 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * ChartWebViewPool — 預熱的 WebView 池（回收式儀表板使用）
+ *
+ * 每個 Slot 是一個已載入 echarts_factory.html 的 WebView + ChartWebViewManager，
+ * 一次只顯示一張圖表卡片。RecyclerView 的 ViewHolder bind 時向池子 acquire，
+ * 回收時 release；閒置的 Slot 最多保留 maxIdle 個，超過的直接 destroy，
+ * 因此 WebView 數量只取決於已 bind 的卡片數 + maxIdle，
+ * 與 ChartViewModel 送出的圖表總數無關。
+ *
+ * 池子本身是 LifecycleObserver，onStop / onStart 轉交給每個 Slot 的 ChartWebViewManager；
+ * 背景期間新建的 Slot 也會直接進入暫停狀態。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * ChartWebViewPool pool = new ChartWebViewPool(context, 4, cache);
+ * pool.prewarm(); // 在資料到達前先載入頁面
+ * getLifecycle().addObserver(pool);
+ * ChartWebViewPool.Slot slot = pool.acquire();
+ * slot.show(model);
+ * ...
+ * pool.release(slot); // 卡片離開畫面（ViewHolder 回收）
+ * ...
+ * pool.destroy();
+ * </pre>
+ */
+public class ChartWebViewPool implements DefaultLifecycleObserver {
+
+    private static final String TAG = "ChartWebViewPool";
+
+    private final Context context;
+    private final int prewarmSize;
+    private final int maxIdle;
+    private final ChartPayloadCache payloadCache;
+    private final Deque<Slot> idle = new ArrayDeque<>();
+    private final List<Slot> all = new ArrayList<>();
+    private LifecycleOwner stoppedBy = null; // 非 null = 目前在背景
+
+    /** 閒置上限預設為 prewarmSize */
+    public ChartWebViewPool(Context context, int prewarmSize, ChartPayloadCache payloadCache) {
+        this(context, prewarmSize, prewarmSize, payloadCache);
+    }
+
+    /**
+     * @param maxIdle 歸還後最多保留的閒置 Slot 數（至少 1），超過的 WebView 直接 destroy
+     */
+    public ChartWebViewPool(Context context, int prewarmSize, int maxIdle, ChartPayloadCache payloadCache) {
+        if (maxIdle < 1)
+            throw new IllegalArgumentException("maxIdle must be >= 1");
+        this.context = context;
+        this.prewarmSize = Math.min(prewarmSize, maxIdle);
+        this.maxIdle = maxIdle;
+        this.payloadCache = payloadCache;
+    }
+
+    /** 預先建立 prewarmSize 個 WebView 並開始載入頁面 */
+    public void prewarm() {
+        while (all.size() < prewarmSize) {
+            idle.push(newSlot());
+        }
+    }
+
+    /** 取出一個 Slot；池子空了就新建一個 */
+    public Slot acquire() {
+        Slot slot = idle.poll();
+        return slot != null ? slot : newSlot();
+    }
+
+    /**
+     * 歸還 Slot（清空頁面內容，保留已載入的 ECharts）。
+     * 閒置數已達 maxIdle 時改為 destroy，池子不再持有該 WebView。
+     */
+    public void release(Slot slot) {
+        if (!all.contains(slot) || idle.contains(slot))
+            return; // 已 destroy 或重複歸還
+        if (slot.webView.getParent() instanceof ViewGroup)
+            ((ViewGroup) slot.webView.getParent()).removeView(slot.webView);
+        if (idle.size() >= maxIdle) {
+            all.remove(slot);
+            slot.webView.destroy();
+            return;
+        }
+        slot.reset();
+        idle.push(slot);
+    }
+
+    /** 目前存在的 WebView 數（使用中 + 閒置） */
+    public int size() {
+        return all.size();
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /** 系統夜間模式切換：轉交給每個 WebView 的主題管理器 */
+    public void onConfigurationChanged(Configuration newConfig) {
+        for (Slot slot : all)
+            slot.manager.onConfigurationChanged(newConfig);
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        stoppedBy = owner;
+        for (Slot slot : all)
+            slot.manager.onStop(owner);
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        stoppedBy = null;
+        for (Slot slot : all)
+            slot.manager.onStart(owner);
+    }
+
+    public void destroy() {
+        for (Slot slot : all) {
+            if (slot.webView.getParent() instanceof ViewGroup)
+                ((ViewGroup) slot.webView.getParent()).removeView(slot.webView);
+            slot.webView.destroy();
+        }
+        all.clear();
+        idle.clear();
+    }
+
+    private Slot newSlot() {
+        Slot slot = new Slot(new WebView(context));
+        all.add(slot);
+        if (stoppedBy != null)
+            slot.manager.onStop(stoppedBy);
+        return slot;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Slot：單一 WebView + 一張圖表
+    // ─────────────────────────────────────────────────────────────
+
+    public final class Slot implements ChartWebViewManager.Callback {
+        private final WebView webView;
+        private final ChartWebViewManager manager;
+        private ChartUIModel shown = null;
+        private ChartUIModel pending = null;
+
+        private Slot(WebView webView) {
+            this.webView = webView;
+            this.manager = new ChartWebViewManager(webView, this);
+            this.manager.setPayloadCache(payloadCache);
+            this.manager.init();
+        }
+
+        public WebView getWebView() {
+            return webView;
+        }
+
+        /**
+         * 顯示指定圖表。相同的 model 不重送；頁面尚未就緒時延後到 onPageReady。
+         */
+        public void show(ChartUIModel model) {
+            if (model == shown)
+                return;
+            if (!manager.isPageReady()) {
+                pending = model;
+                return;
+            }
+            manager.clearAll();
+            manager.renderSingleChart(model);
+            shown = model;
+            pending = null;
+        }
+
+        private void reset() {
+            pending = null;
+            if (shown != null) {
+                manager.clearAll();
+                shown = null;
+            }
+        }
+
+        @Override
+        public void onPageReady() {
+            // onPageFinished 與 JS 端 onPageReady 都會觸發，只處理尚未送出的圖表
+            if (pending != null)
+                show(pending);
+        }
+
+        @Override
+        public void onError(String message) {
+            Log.e(TAG, "Slot error: " + message);
+        }
+    }
+}
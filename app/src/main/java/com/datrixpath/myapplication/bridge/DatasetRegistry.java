@@ -0,0 +1,68 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.model.Dataset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DatasetRegistry — 單一頁面上共用 Dataset 的引用計數
+ *
+ * 每個 ChartWebViewManager（= 一個頁面）一份：
+ * - bind(chartId, dataset) → 圖表改為引用 dataset（null = 不引用任何 Dataset）
+ * - needsSend(dataset) → 頁面上尚無此實例時為 true（首次引用或 Dataset 已換新版本）
+ * - 最後一張引用的圖表解除後，bind / unbind 回傳該 datasetId，由呼叫端送出 releaseDataset
+ *
+ * 只在 UI 執行緒使用（與 renderSingleChart / removeChart 相同），不做同步。
+ */
+final class DatasetRegistry {
+
+    private final Map<String, String> charts = new HashMap<>(); // chartId → datasetId
+    private final Map<String, Integer> refs = new HashMap<>(); // datasetId → 引用數
+    private final Map<String, Dataset> sent = new HashMap<>(); // datasetId → 頁面上的版本
+
+    /**
+     * 將圖表綁定到 dataset（可為 null）。
+     *
+     * @return 因此失去最後一個引用的 datasetId；沒有需要釋放的資料時為 null
+     */
+    String bind(String chartId, Dataset dataset) {
+        if (dataset != null) {
+            Integer count = refs.get(dataset.getId());
+            refs.put(dataset.getId(), count == null ? 1 : count + 1);
+        }
+        String previous = dataset != null
+                ? charts.put(chartId, dataset.getId())
+                : charts.remove(chartId);
+        return previous != null ? release(previous) : null;
+    }
+
+    String unbind(String chartId) {
+        return bind(chartId, null);
+    }
+
+    boolean needsSend(Dataset dataset) {
+        return sent.get(dataset.getId()) != dataset;
+    }
+
+    void markSent(Dataset dataset) {
+        sent.put(dataset.getId(), dataset);
+    }
+
+    void clear() {
+        charts.clear();
+        refs.clear();
+        sent.clear();
+    }
+
+    private String release(String datasetId) {
+        Integer count = refs.get(datasetId);
+        if (count != null && count > 1) {
+            refs.put(datasetId, count - 1);
+            return null;
+        }
+        refs.remove(datasetId);
+        sent.remove(datasetId);
+        return datasetId;
+    }
+}
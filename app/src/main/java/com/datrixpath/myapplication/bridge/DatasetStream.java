@@ -0,0 +1,186 @@
+package com.datrixpath.myapplication.bridge;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DatasetStream — 以固定大小緩衝區逐段輸出 dataset 的 InputStream
+ *
+ * 不先組出完整 JSON 字串，而是在 WebView 讀取時才把下一批 row 編碼成 UTF-8，
+ * 因此 Java 端的額外記憶體只有一個 block 的文字 + BUFFER_BYTES 的位元組緩衝，
+ * 與資料量無關。
+ *
+ * 輸出格式（換行分隔，JS 端 _readDataset 逐行解析）：
+ *
+ * <pre>
+ * {"fields":["date","channel","revenue"],"rows":18}
+ * [["Jan","Online",5000],["Feb","Online",6200], ...]   ← 每行最多 BLOCK_ROWS 筆
+ * ...
+ * </pre>
+ */
+final class DatasetStream extends InputStream {
+
+    static final int BLOCK_ROWS = 512;
+    static final int BUFFER_BYTES = 64 * 1024;
+
+    private final List<Map<String, Object>> rows;
+    private final String[] fields;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder text = new StringBuilder();
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+    private CharBuffer pending = null;
+    private boolean headerWritten = false;
+    private int next = 0;
+
+    DatasetStream(List<Map<String, Object>> rows, List<String> dimensions) {
+        this.rows = rows;
+        this.fields = fieldsOf(rows, dimensions);
+        out.flip(); // 初始為空的讀取狀態
+    }
+
+    @Override
+    public int read() {
+        if (!out.hasRemaining() && !refill())
+            return -1;
+        return out.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0)
+            return 0;
+        if (!out.hasRemaining() && !refill())
+            return -1;
+        int n = Math.min(len, out.remaining());
+        out.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return out.remaining();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 編碼
+    // ─────────────────────────────────────────────────────────────
+
+    /** 將下一段文字編碼進 out；沒有更多資料時回傳 false */
+    private boolean refill() {
+        out.clear();
+        while (out.hasRemaining()) {
+            if (pending == null || !pending.hasRemaining()) {
+                if (!produceText())
+                    break;
+                pending = CharBuffer.wrap(text);
+            }
+            CoderResult result = encoder.encode(pending, out, false);
+            if (result.isOverflow())
+                break;
+        }
+        out.flip();
+        return out.hasRemaining();
+    }
+
+    /** 產生下一行（header 或一個 block）；全部輸出完畢時回傳 false */
+    private boolean produceText() {
+        text.setLength(0);
+        if (!headerWritten) {
+            headerWritten = true;
+            text.append("{\"fields\":[");
+            for (int f = 0; f < fields.length; f++) {
+                if (f > 0)
+                    text.append(',');
+                appendString(text, fields[f]);
+            }
+            text.append("],\"rows\":").append(rows.size()).append("}\n");
+            return true;
+        }
+        if (next >= rows.size())
+            return false;
+
+        int end = Math.min(rows.size(), next + BLOCK_ROWS);
+        text.append('[');
+        for (int i = next; i < end; i++) {
+            if (i > next)
+                text.append(',');
+            Map<String, Object> row = rows.get(i);
+            text.append('[');
+            for (int f = 0; f < fields.length; f++) {
+                if (f > 0)
+                    text.append(',');
+                appendValue(text, row.get(fields[f]));
+            }
+            text.append(']');
+        }
+        text.append("]\n");
+        next = end;
+        return true;
+    }
+
+    private static String[] fieldsOf(List<Map<String, Object>> rows, List<String> dimensions) {
+        if (dimensions != null && !dimensions.isEmpty())
+            return dimensions.toArray(new String[0]);
+        Set<String> keys = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows)
+            keys.addAll(row.keySet());
+        return keys.toArray(new String[0]);
+    }
+
+    private static void appendValue(StringBuilder sb, Object v) {
+        if (v == null) {
+            sb.append("null");
+        } else if (v instanceof Double || v instanceof Float) {
+            double d = ((Number) v).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d))
+                sb.append("null");
+            else if (d == Math.rint(d) && Math.abs(d) < 1e15)
+                sb.append((long) d);
+            else
+                sb.append(d);
+        } else if (v instanceof Number || v instanceof Boolean) {
+            sb.append(v);
+        } else {
+            appendString(sb, v.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,123 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.chart.ChartPresetRegistry;
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * RenderProfile — 依資料量自動選擇的 ECharts 渲染設定
+ *
+ * 序列化時以「繪製點數 + 系列數」分類每張圖表，JS 端 _applyRenderProfile 套用（一律 Canvas）：
+ *
+ * <pre>
+ * NORMAL → 保留動畫 / symbol / smooth
+ * LARGE  → 關閉動畫、symbol、smooth；折線 LTTB 取樣，長條 / 散點 large 模式
+ * HUGE   → LARGE + progressive 分段繪製
+ * </pre>
+ *
+ * 需要掃描 source 的估算（stackField pivot）依 model 實例快取：同一份資料重複序列化不再重算。
+ * 即時序列的點數隨 appendPoints 成長，由 ChartWebViewManager 以 classifyLive 重新分類。
+ *
+ * model.getOptions() 在套用 profile（與空間索引 / 疊加系列的裝飾）之後才合併，因此手動設定永遠優先。
+ */
+public enum RenderProfile {
+    NORMAL("normal"),
+    LARGE("large"),
+    HUGE("huge");
+
+    /** 繪製點數達到此值 → LARGE（同 ECharts largeThreshold 預設值） */
+    public static final int LARGE_POINTS = 2_000;
+    /** 系列數達到此值 → LARGE（圖例 / hover 成本隨系列數成長） */
+    public static final int LARGE_SERIES = 20;
+    /** 繪製點數達到此值 → HUGE */
+    public static final int HUGE_POINTS = 50_000;
+
+    /** HUGE 的 progressive 每幀繪製數與啟用門檻 */
+    static final int PROGRESSIVE_CHUNK = 5_000;
+    static final int PROGRESSIVE_THRESHOLD = 10_000;
+
+    // model 實例 → { 繪製點數, 系列數 }（只快取需要掃描 source 的 pivot 估算；model 不再使用時自動釋放）
+    private static final Map<ChartUIModel, long[]> SHAPES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String jsName;
+
+    RenderProfile(String jsName) {
+        this.jsName = jsName;
+    }
+
+    /**
+     * 依 row 數與系列數分類（熱力圖格點一律 LARGE）。
+     * 有 stackField 時 JS 端會 pivot，點數 = x 類別數 × 系列數（第一次需掃過 source，之後讀快取）；
+     * 否則每個 row 一個點，直接以 row 數判斷。
+     */
+    public static RenderProfile classify(ChartUIModel model) {
+        if (model.getHeatmap() != null)
+            return LARGE; // 格點模式：可見格數由 JS 端控制在預算內
+        if (isItemChart(model))
+            return NORMAL;
+        long[] shape = estimateShape(model);
+        return of(shape[0], (int) shape[1]);
+    }
+
+    /** 即時序列目前在頁面上的點數（appendPoints 後成長，最多 liveMaxRows）對應的 profile */
+    public static RenderProfile classifyLive(ChartUIModel model, long points) {
+        return isItemChart(model) ? NORMAL : of(points, 1); // 即時序列沒有 stackField
+    }
+
+    /** 沒有座標軸資料點概念的類型（點數 = 類別數，一律 NORMAL），由 ChartPresetRegistry 宣告 */
+    private static boolean isItemChart(ChartUIModel model) {
+        ChartPresetRegistry.Preset preset = ChartPresetRegistry.get(model.getType());
+        return preset == null || preset.isItemChart();
+    }
+
+    static RenderProfile of(long points, int series) {
+        if (points >= HUGE_POINTS)
+            return HUGE;
+        if (points >= LARGE_POINTS || series >= LARGE_SERIES)
+            return LARGE;
+        return NORMAL;
+    }
+
+    /** 回傳 { 繪製點數, 系列數 } */
+    static long[] estimateShape(ChartUIModel model) {
+        List<Map<String, Object>> rows = model.getSource();
+        String stackField = model.getStackField();
+        String xField = model.getEncode() != null ? model.getEncode().get("x") : null;
+        if (stackField == null || stackField.isEmpty() || xField == null)
+            return new long[] { rows.size(), 1 };
+
+        long[] shape = SHAPES.get(model);
+        if (shape != null)
+            return shape;
+        Set<Object> xs = new HashSet<>();
+        Set<Object> groups = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            xs.add(row.get(xField));
+            groups.add(row.get(stackField));
+        }
+        shape = new long[] { (long) xs.size() * groups.size(), groups.size() };
+        SHAPES.put(model, shape);
+        return shape;
+    }
+
+    /** configJson 中的 render 區塊 */
+    JSONObject toJson() throws JSONException {
+        JSONObject obj = new JSONObject();
+        obj.put("profile", jsName);
+        if (this != NORMAL) {
+            obj.put("largeThreshold", LARGE_POINTS);
+            obj.put("progressive", PROGRESSIVE_CHUNK);
+            obj.put("progressiveThreshold", PROGRESSIVE_THRESHOLD);
+        }
+        return obj;
+    }
+}
@@ -1,6 +1,8 @@
 package com.datrixpath.myapplication.chart;
 
 import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+import com.datrixpath.myapplication.model.HeatmapGrid;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,13 +18,14 @@ import java.util.Map;
  * ║ 1. 在此檔案下方新增一個 static 方法 build[Name]() ║
  * ║ 2. 在 buildAll() 的 list.add(...) 清單加入呼叫 ║
  * ║ 3. 若需要 JS 端自訂格式（formatter / 動畫等）， ║
- * ║ 在 echarts_factory.html 的「工程師擴充區」登記 Preset ║
+ * ║ 新增 assets/presets/ 模組並在 ChartPresetRegistry 登記 ║
  * ╚══════════════════════════════════════════════════════════════╝
  *
  * JS 端對應的 Preset 系統說明：
  * - 內建類型（bar / line / pie / scatter）：直接填 .type() 即可
- * - 自訂類型（bar-normalized / gauge-ring）：
- * → 在 echarts_factory.html 的 PresetRegistry.register() 區塊登記
+ * - 自訂類型（bar-normalized / gauge-ring / heatmap）：
+ * → 每個類型一個 assets/presets/{name}.js 模組，頁面依 ChartPresetRegistry 產生的 ?v= 標籤載入
+ * → 同時在 ChartPresetRegistry 登記版本與資料形狀，未登記的 type 在序列化時即被拒絕
  * → Android 端同樣使用 .type("bar-normalized") 呼叫
  */
 public class ChartPresetFactory {
@@ -56,20 +59,27 @@ public class ChartPresetFactory {
         // ── 格式 F: 水平長條圖（GDP 排行） ───────────
         list.add(buildHorizontalBar());
 
+        // ── 格式 G / I 共用同一份通路營收 Dataset（頁面只收到一次） ──
+        Dataset channelRevenue = buildChannelRevenue();
+
         // ── 格式 G: 堆疊長條圖（三通路月營收） ───────
-        list.add(buildStackedBar());
+        list.add(buildStackedBar(channelRevenue));
 
         // ── 格式 H: 堆疊面積折線圖（三區域銷售） ─────
         list.add(buildStackedLine());
 
         // ── 格式 I: 100% 堆疊（Normalized）長條圖 ────
         // 類型 "bar-normalized" 由 JS Preset 處理，Android 端零額外邏輯
-        list.add(buildNormalizedBar());
+        list.add(buildNormalizedBar(channelRevenue));
 
         // ── 格式 J: 環形儀表盤（達成率） ─────────────
         // 類型 "gauge-ring" 由 JS Preset 處理
         list.add(buildGaugeRing());
 
+        // ── 格式 K: 熱力圖（星期 × 小時活躍度） ───────
+        // 類型 "heatmap" + HeatmapGrid：float[] 格點，不經過 List<Map>
+        list.add(buildActivityHeatmap());
+
         // ╔══════════════════════════════════════════════╗
         // ║ >>> 在此加入新圖表 <<< ║
         // ║ list.add(buildYourNewChart()); ║
@@ -225,12 +235,11 @@ public class ChartPresetFactory {
     }
 
     // ─────────────────────────────────────────────────────────────
-    // 格式 G — 堆疊長條圖（扁平資料 + stackField）
+    // 通路營收 Dataset（格式 G / I 共用）
     // 資料格式：{ "date": "Jan", "channel": "Online", "revenue": 5000 }
-    // JS 工廠自動 pivot，無需 Android 端預處理
     // ─────────────────────────────────────────────────────────────
 
-    private static ChartUIModel buildStackedBar() {
+    private static Dataset buildChannelRevenue() {
         List<Map<String, Object>> data = new ArrayList<>();
         String[] months = { "Jan", "Feb", "Mar", "Apr", "May", "Jun" };
         String[] channels = { "Online", "Offline", "App" };
@@ -243,12 +252,23 @@ public class ChartPresetFactory {
             for (int m = 0; m < months.length; m++)
                 data.add(row3("date", months[m], "channel", channels[c], "revenue", revenues[c][m]));
 
+        return new Dataset.Builder("channel_revenue", data).build();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 格式 G — 堆疊長條圖（扁平資料 + stackField）
+    // 資料：通路營收 Dataset
+    // JS 工廠自動 pivot，無需 Android 端預處理
+    // ─────────────────────────────────────────────────────────────
+
+    private static ChartUIModel buildStackedBar(Dataset revenue) {
         Map<String, String> encode = encode("x", "date", "y", "revenue");
-        return new ChartUIModel.Builder("stacked_bar_chart", data)
+        return new ChartUIModel.Builder("stacked_bar_chart", revenue)
                 .title("各通路月營收 (格式 G - 堆疊長條)")
                 .type("bar")
                 .encode(encode)
                 .stackField("channel")
+                .crossFilter("channel_revenue") // ← 點選通路 → 連動篩選格式 I
                 .build();
     }
 
@@ -281,31 +301,19 @@ public class ChartPresetFactory {
 
     // ─────────────────────────────────────────────────────────────
     // 格式 I — 100% 堆疊長條圖（Normalized）
-    // 類型名稱 "bar-normalized" → 由 JS echarts_factory.html 的
-    // PresetRegistry 處理；Android 端不需要計算百分比
-    // 資料格式：{ "date": "Jan", "channel": "Online", "revenue": 5000 }
+    // 類型名稱 "bar-normalized" → 由 assets/presets/bar-normalized.js
+    // 處理；Android 端不需要計算百分比
+    // 資料：與格式 G 共用通路營收 Dataset（JS 端自動換算百分比）
     // ─────────────────────────────────────────────────────────────
 
-    private static ChartUIModel buildNormalizedBar() {
-        // 使用與格式 G 完全相同的原始數據（JS 端自動換算百分比）
-        List<Map<String, Object>> data = new ArrayList<>();
-        String[] months = { "Jan", "Feb", "Mar", "Apr", "May", "Jun" };
-        String[] channels = { "Online", "Offline", "App" };
-        int[][] revenues = {
-                { 5000, 6200, 7100, 6800, 8300, 9400 },
-                { 3500, 3000, 3800, 4100, 3700, 4500 },
-                { 1800, 2100, 2500, 2900, 3200, 3800 }
-        };
-        for (int c = 0; c < channels.length; c++)
-            for (int m = 0; m < months.length; m++)
-                data.add(row3("date", months[m], "channel", channels[c], "revenue", revenues[c][m]));
-
+    private static ChartUIModel buildNormalizedBar(Dataset revenue) {
         Map<String, String> encode = encode("x", "date", "y", "revenue");
-        return new ChartUIModel.Builder("normalized_bar_chart", data)
+        return new ChartUIModel.Builder("normalized_bar_chart", revenue)
                 .title("各通路佔比 (格式 I - 100% 堆疊)")
                 .type("bar-normalized") // ← JS Preset 負責渲染
                 .encode(encode)
                 .stackField("channel")
+                .crossFilter("channel_revenue")
                 .build();
     }
 
@@ -328,6 +336,36 @@ public class ChartPresetFactory {
                 .build();
     }
 
+    // ─────────────────────────────────────────────────────────────
+    // 格式 K — 熱力圖（heatmap + HeatmapGrid）
+    // 資料格式：float[24 × 7] 格點 + 兩條軸標籤，由 JS Preset "heatmap" 依可見範圍載入 tile
+    // ─────────────────────────────────────────────────────────────
+
+    private static ChartUIModel buildActivityHeatmap() {
+        List<String> hours = new ArrayList<>();
+        for (int h = 0; h < 24; h++)
+            hours.add((h < 10 ? "0" : "") + h + ":00");
+        List<String> days = Arrays.asList("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun");
+
+        HeatmapGrid.Builder grid = new HeatmapGrid.Builder(hours, days);
+        for (int d = 0; d < days.size(); d++) {
+            boolean weekend = d >= 5;
+            for (int h = 0; h < 24; h++) {
+                // 平日上下班兩個尖峰，假日集中在午後
+                double peak = weekend
+                        ? 80 * Math.exp(-Math.pow(h - 15, 2) / 18)
+                        : 60 * Math.exp(-Math.pow(h - 9, 2) / 4) + 70 * Math.exp(-Math.pow(h - 20, 2) / 6);
+                grid.set(h, d, (float) Math.round(5 + peak));
+            }
+        }
+
+        return new ChartUIModel.Builder("activity_heatmap", new ArrayList<>())
+                .title("每週活躍時段 (格式 K - 熱力圖)")
+                .type("heatmap") // ← JS Preset 負責渲染
+                .heatmap(grid.build())
+                .build();
+    }
+
     // ╔══════════════════════════════════════════════════════════════╗
     // ║ >>> 在此加入新的 build 方法 <<< ║
     // ║ ║
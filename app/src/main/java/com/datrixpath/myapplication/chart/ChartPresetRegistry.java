@@ -0,0 +1,259 @@
+package com.datrixpath.myapplication.chart;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ChartPresetRegistry — 圖表類型清單（Java 端）
+ *
+ * 每個 type 字串對應一筆 Preset，宣告：
+ * 1. 由哪個 JS 模組渲染（assets/presets/{name}.js；內建類型由 echarts_factory.html 的 buildOption 直接處理）
+ *    模組清單與版本只登記在這裡：ChartDataServer 提供頁面時以 injectModules() 產生
+ *    &lt;script src="presets/{name}.js?v={version}" data-preset&gt; 標籤，頁面與 Worker 依此載入
+ * 2. 需要的資料形狀（DataShape）與讀取的 encode 欄位
+ *
+ * ChartPayloadSerializer 序列化前以 validate() 檢查 type 與必要欄位，錯字不再等到頁面才失敗；
+ * ChartPayloadSerializer 依 shape() 只送出 preset 會讀取的欄位。
+ *
+ * 新增自訂類型：
+ *
+ * <pre>
+ * // 1. assets/presets/my-chart.js：PresetRegistry.register("my-chart", { buildOption(...) {...} });
+ * // 2. 在下方 static 區塊登記：
+ * module("my-chart", 1, DataShape.NAME_VALUE).role("itemName", "name").role("value", "value");
+ * </pre>
+ *
+ * 修改模組內容時只需調高這裡的版本號（?v= 變更後 WebView 才會重新載入長期快取的模組）。
+ */
+public final class ChartPresetRegistry {
+
+    /** 資料形狀：決定 preset 讀取哪些欄位 */
+    public enum DataShape {
+        /** 一般 row，全部欄位皆可能被 encode / dimensions / options 引用 */
+        ROWS,
+        /** 依 stackField 轉置：只讀 encode.x、encode.y 與 stackField */
+        PIVOT,
+        /** 每列一個 name / value */
+        NAME_VALUE,
+        /** 格點：HeatmapGrid，或 x / y / value 三欄的 row */
+        GRID
+    }
+
+    public static final String MODULE_DIR = "presets/";
+
+    /** echarts_factory.html 中模組標籤的插入點（chart-core 之後、Worker 原始碼之前） */
+    public static final String MODULE_PLACEHOLDER = "<script id=\"preset-modules\"></script>";
+
+    public static final class Preset {
+        private final String name;
+        private final int version;
+        private final DataShape shape;
+        private final boolean module;
+        private final Map<String, String> roles = new LinkedHashMap<>(); // encode key → 預設欄位（null 表示必填）
+        private boolean requiresStackField = false;
+        private boolean itemChart = false;
+
+        private Preset(String name, int version, DataShape shape, boolean module) {
+            this.name = name;
+            this.version = version;
+            this.shape = shape;
+            this.module = module;
+        }
+
+        private Preset role(String encodeKey, String defaultField) {
+            roles.put(encodeKey, defaultField);
+            return this;
+        }
+
+        private Preset requiresStackField() {
+            this.requiresStackField = true;
+            return this;
+        }
+
+        private Preset itemChart() {
+            this.itemChart = true;
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public DataShape getShape() {
+            return shape;
+        }
+
+        public boolean isModule() {
+            return module;
+        }
+
+        /** 模組的資產路徑（相對於 assets/，含版本參數）；內建類型回傳 null */
+        public String getModulePath() {
+            return module ? MODULE_DIR + name + ".js?v=" + version : null;
+        }
+
+        public boolean isStackFieldRequired() {
+            return requiresStackField;
+        }
+
+        /** 每列一個項目（扇區 / 環 / 指標），沒有座標軸上的資料點；RenderProfile 一律視為 NORMAL */
+        public boolean isItemChart() {
+            return itemChart;
+        }
+
+        /** preset 讀取的 encode key（PIVOT / NAME_VALUE / GRID） */
+        public Set<String> getRoles() {
+            return Collections.unmodifiableSet(roles.keySet());
+        }
+
+        /**
+         * 依 encode 解析實際讀取的欄位；ROWS 回傳 null（不可裁剪）
+         */
+        public List<String> fields(Map<String, String> encode, String stackField) {
+            if (shape == DataShape.ROWS)
+                return null;
+            Set<String> out = new LinkedHashSet<>();
+            for (Map.Entry<String, String> r : roles.entrySet()) {
+                String field = encode != null ? encode.get(r.getKey()) : null;
+                out.add(field != null ? field : r.getValue());
+            }
+            if (stackField != null)
+                out.add(stackField);
+            return new ArrayList<>(out);
+        }
+    }
+
+    private static final Map<String, Preset> PRESETS = new LinkedHashMap<>();
+
+    static {
+        // ── 內建類型（echarts_factory.html buildOption）──
+        for (String type : new String[] { "line", "bar", "pie", "scatter", "radar", "funnel", "gauge", "candlestick" })
+            add(new Preset(type, 0, DataShape.ROWS, false));
+        for (String type : new String[] { "pie", "radar", "funnel", "gauge" })
+            PRESETS.get(type).itemChart();
+
+        // ── 模組（assets/presets/*.js）──
+        module("bar-normalized", 1, DataShape.PIVOT).role("x", null).role("y", null).requiresStackField();
+        module("gauge-ring", 1, DataShape.NAME_VALUE).role("itemName", "name").role("value", "value").itemChart();
+        module("heatmap", 1, DataShape.GRID).role("x", "x").role("y", "y").role("value", "value");
+    }
+
+    private ChartPresetRegistry() {
+    }
+
+    private static Preset module(String name, int version, DataShape shape) {
+        return add(new Preset(name, version, shape, true));
+    }
+
+    private static Preset add(Preset preset) {
+        PRESETS.put(preset.getName(), preset);
+        return preset;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 查詢
+    // ─────────────────────────────────────────────────────────────
+
+    public static boolean isKnown(String type) {
+        return type != null && PRESETS.containsKey(type);
+    }
+
+    /** 未登記的類型回傳 null */
+    public static Preset get(String type) {
+        return type != null ? PRESETS.get(type) : null;
+    }
+
+    public static Collection<Preset> all() {
+        return Collections.unmodifiableCollection(PRESETS.values());
+    }
+
+    /** 需要載入 JS 模組的 preset（依登記順序） */
+    public static List<Preset> modules() {
+        List<Preset> out = new ArrayList<>();
+        for (Preset p : PRESETS.values())
+            if (p.isModule())
+                out.add(p);
+        return out;
+    }
+
+    /** 所有模組的 &lt;script data-preset&gt; 標籤（依登記順序，src 含版本參數） */
+    public static String scriptTags() {
+        StringBuilder out = new StringBuilder();
+        for (Preset p : modules())
+            out.append("<script src=\"").append(p.getModulePath()).append("\" data-preset></script>");
+        return out.toString();
+    }
+
+    /** 將頁面中的 MODULE_PLACEHOLDER 換成 scriptTags()；沒有插入點時原樣回傳 */
+    public static String injectModules(String page) {
+        return page.replace(MODULE_PLACEHOLDER, scriptTags());
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 驗證 / 預先整形
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 檢查 type 已登記、必要的 encode key 與 stackField 已設定。
+     *
+     * @throws IllegalArgumentException 不符合時
+     */
+    public static void validate(ChartUIModel model) {
+        validate(model.getType(), model.getEncode(), model.getStackField(), model.getHeatmap() != null);
+    }
+
+    /**
+     * 同 validate(model)，供尚未建立 ChartUIModel 時使用。
+     *
+     * @param hasGrid 以 HeatmapGrid 提供資料（GRID 形狀不需 encode）
+     * @throws IllegalArgumentException 不符合時
+     */
+    public static void validate(String type, Map<String, String> encode, String stackField, boolean hasGrid) {
+        Preset preset = get(type);
+        if (preset == null)
+            throw new IllegalArgumentException("unknown chart type: " + type + " (known: " + PRESETS.keySet() + ")");
+        if (preset.requiresStackField && (stackField == null || stackField.isEmpty()))
+            throw new IllegalArgumentException("chart type " + type + " requires stackField");
+        if (preset.shape == DataShape.GRID && hasGrid)
+            return;
+        for (Map.Entry<String, String> r : preset.roles.entrySet())
+            if (r.getValue() == null && (encode == null || encode.get(r.getKey()) == null))
+                throw new IllegalArgumentException("chart type " + type + " requires encode." + r.getKey());
+    }
+
+    /**
+     * 只保留 preset 會讀取的欄位；ROWS 形狀或宣告了 dimensions 的圖表原樣回傳（同一實例）。
+     * 疊加系列與 options 可能引用其他欄位，因此只對 PIVOT / NAME_VALUE / GRID 裁剪。
+     */
+    public static List<Map<String, Object>> shape(ChartUIModel model) {
+        Preset preset = get(model.getType());
+        List<String> fields = preset != null ? preset.fields(model.getEncode(), model.getStackField()) : null;
+        List<Map<String, Object>> source = model.getSource();
+        if (fields == null || source.isEmpty() || !model.getOverlays().isEmpty()
+                || (model.getDimensions() != null && !model.getDimensions().isEmpty()))
+            return source;
+        if (source.get(0).size() <= fields.size() && source.get(0).keySet().containsAll(fields))
+            return source; // 沒有多餘欄位
+        List<Map<String, Object>> out = new ArrayList<>(source.size());
+        for (Map<String, Object> row : source) {
+            Map<String, Object> projected = new LinkedHashMap<>(fields.size() * 2);
+            for (String f : fields)
+                if (row.containsKey(f))
+                    projected.put(f, row.get(f));
+            out.add(projected);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,314 @@
+package com.datrixpath.myapplication.chart;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.HeatmapGrid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * SyntheticDataGenerator — 大量測試資料產生器
+ *
+ * ChartPresetFactory 的 mock 資料只有數十筆，無法反映正式環境的資料量。
+ * 本類別依 Spec 產生任意筆數的扁平 row（與格式 G 相同的形狀），
+ * 供壓力測試 / 規模測試餵入 ChartViewModel → ChartWebViewManager 管線。
+ *
+ * 資料格式：{ "ts": 1700000000000, "category": "C003", "group": "G1", "value": 812.4 }
+ * - ts → 時間戳（startMillis + i * stepMillis）
+ * - category → X 軸分類，依 Zipf 分佈偏斜（少數分類佔大多數 row）
+ * - group → 堆疊分組欄位（stackField），共 stackGroups 組
+ * - value → 數值欄位
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec.Builder(100_000)
+ *         .stackGroups(5)
+ *         .categories(24)
+ *         .build();
+ * ChartUIModel model = SyntheticDataGenerator.buildStackedBar("big_bar", spec);
+ * ChartUIModel grid = SyntheticDataGenerator.buildSensorGrid("sensor", 4000, 4000, 42L);
+ * </pre>
+ */
+public final class SyntheticDataGenerator {
+
+    public static final String FIELD_TS = "ts";
+    public static final String FIELD_CATEGORY = "category";
+    public static final String FIELD_GROUP = "group";
+    public static final String FIELD_VALUE = "value";
+
+    private SyntheticDataGenerator() {
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 產生參數
+    // ─────────────────────────────────────────────────────────────
+
+    public static final class Spec {
+        private final int rows;
+        private final int stackGroups;
+        private final int categories;
+        private final double skew;
+        private final long startMillis;
+        private final long stepMillis;
+        private final long seed;
+
+        private Spec(Builder builder) {
+            this.rows = builder.rows;
+            this.stackGroups = builder.stackGroups;
+            this.categories = builder.categories;
+            this.skew = builder.skew;
+            this.startMillis = builder.startMillis;
+            this.stepMillis = builder.stepMillis;
+            this.seed = builder.seed;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getStackGroups() {
+            return stackGroups;
+        }
+
+        public int getCategories() {
+            return categories;
+        }
+
+        public double getSkew() {
+            return skew;
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getStepMillis() {
+            return stepMillis;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public static class Builder {
+            private final int rows;
+            private int stackGroups = 3;
+            private int categories = 12;
+            private double skew = 1.1; // Zipf 指數，0 = 均勻分佈
+            private long startMillis = 1_700_000_000_000L;
+            private long stepMillis = 60_000L;
+            private long seed = 42L; // 固定種子，確保每次產生相同資料
+
+            public Builder(int rows) {
+                this.rows = rows;
+            }
+
+            public Builder stackGroups(int stackGroups) {
+                this.stackGroups = stackGroups;
+                return this;
+            }
+
+            public Builder categories(int categories) {
+                this.categories = categories;
+                return this;
+            }
+
+            public Builder skew(double skew) {
+                this.skew = skew;
+                return this;
+            }
+
+            public Builder timestamps(long startMillis, long stepMillis) {
+                this.startMillis = startMillis;
+                this.stepMillis = stepMillis;
+                return this;
+            }
+
+            public Builder seed(long seed) {
+                this.seed = seed;
+                return this;
+            }
+
+            public Spec build() {
+                if (rows < 0)
+                    throw new IllegalArgumentException("rows cannot be negative");
+                if (stackGroups < 1)
+                    throw new IllegalArgumentException("stackGroups must be >= 1");
+                if (categories < 1)
+                    throw new IllegalArgumentException("categories must be >= 1");
+                if (skew < 0)
+                    throw new IllegalArgumentException("skew cannot be negative");
+                return new Spec(this);
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 產生 row 資料
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 依 Spec 產生扁平 row 清單。
+     * 分類 / 分組字串預先建好並重複引用，與真實 API 解析後的記憶體形狀相近。
+     */
+    public static List<Map<String, Object>> generateRows(Spec spec) {
+        Random random = new Random(spec.getSeed());
+        String[] categoryNames = labels("C", spec.getCategories());
+        String[] groupNames = labels("G", spec.getStackGroups());
+        double[] cdf = zipfCdf(spec.getCategories(), spec.getSkew());
+
+        List<Map<String, Object>> rows = new ArrayList<>(spec.getRows());
+        for (int i = 0; i < spec.getRows(); i++) {
+            int c = sample(cdf, random.nextDouble());
+            int g = random.nextInt(spec.getStackGroups());
+            double value = Math.round((100 + random.nextGaussian() * 30 + c * 5) * 10) / 10.0;
+
+            Map<String, Object> row = new HashMap<>();
+            row.put(FIELD_TS, spec.getStartMillis() + i * spec.getStepMillis());
+            row.put(FIELD_CATEGORY, categoryNames[c]);
+            row.put(FIELD_GROUP, groupNames[g]);
+            row.put(FIELD_VALUE, value);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 包裝成 ChartUIModel
+    // ─────────────────────────────────────────────────────────────
+
+    /** 堆疊長條圖：X = category，依 group 堆疊（同格式 G） */
+    public static ChartUIModel buildStackedBar(String id, Spec spec) {
+        Map<String, String> encode = new HashMap<>();
+        encode.put("x", FIELD_CATEGORY);
+        encode.put("y", FIELD_VALUE);
+        return new ChartUIModel.Builder(id, generateRows(spec))
+                .title("Synthetic stacked bar (" + spec.getRows() + " rows)")
+                .type("bar")
+                .encode(encode)
+                .stackField(FIELD_GROUP)
+                .build();
+    }
+
+    /** 時間序列折線圖：X = ts */
+    public static ChartUIModel buildTimeLine(String id, Spec spec) {
+        Map<String, String> encode = new HashMap<>();
+        encode.put("x", FIELD_TS);
+        encode.put("y", FIELD_VALUE);
+        return new ChartUIModel.Builder(id, generateRows(spec))
+                .title("Synthetic time line (" + spec.getRows() + " rows)")
+                .type("line")
+                .encode(encode)
+                .build();
+    }
+
+    /**
+     * 產生 chartCount 張圖表的儀表板，交替使用堆疊長條 / 時間折線，
+     * 每張圖使用不同種子避免資料完全相同。
+     */
+    public static List<ChartUIModel> buildDashboard(Spec spec, int chartCount) {
+        List<ChartUIModel> list = new ArrayList<>(chartCount);
+        for (int i = 0; i < chartCount; i++) {
+            Spec chartSpec = new Spec.Builder(spec.getRows())
+                    .stackGroups(spec.getStackGroups())
+                    .categories(spec.getCategories())
+                    .skew(spec.getSkew())
+                    .timestamps(spec.getStartMillis(), spec.getStepMillis())
+                    .seed(spec.getSeed() + i)
+                    .build();
+            list.add(i % 2 == 0
+                    ? buildStackedBar("synthetic_bar_" + i, chartSpec)
+                    : buildTimeLine("synthetic_line_" + i, chartSpec));
+        }
+        return list;
+    }
+
+    /**
+     * 感測器格點熱力圖：width × height 格（例如 4000 × 4000），直接寫入 float[]，
+     * 不產生任何 row Map。數值為數個高斯熱點疊加雜訊，約 2% 的格子為缺值。
+     */
+    public static ChartUIModel buildSensorGrid(String id, int width, int height, long seed) {
+        Random random = new Random(seed);
+        int spots = 6;
+        double[] cx = new double[spots];
+        double[] cy = new double[spots];
+        double[] radius = new double[spots];
+        for (int s = 0; s < spots; s++) {
+            cx[s] = random.nextDouble() * width;
+            cy[s] = random.nextDouble() * height;
+            radius[s] = (0.05 + random.nextDouble() * 0.15) * Math.max(width, height);
+        }
+
+        float[] values = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (random.nextInt(50) == 0) {
+                    values[y * width + x] = Float.NaN;
+                    continue;
+                }
+                double v = random.nextGaussian() * 2;
+                for (int s = 0; s < spots; s++) {
+                    double dx = x - cx[s];
+                    double dy = y - cy[s];
+                    v += 100 * Math.exp(-(dx * dx + dy * dy) / (2 * radius[s] * radius[s]));
+                }
+                values[y * width + x] = (float) v;
+            }
+        }
+
+        List<String> xs = new ArrayList<>(width);
+        for (String label : labels("X", width))
+            xs.add(label);
+        List<String> ys = new ArrayList<>(height);
+        for (String label : labels("Y", height))
+            ys.add(label);
+        HeatmapGrid grid = new HeatmapGrid.Builder(xs, ys, values).build();
+        return new ChartUIModel.Builder(id, new ArrayList<>())
+                .title("Synthetic sensor grid (" + width + " × " + height + ")")
+                .type("heatmap")
+                .heatmap(grid)
+                .build();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 工具方法
+    // ─────────────────────────────────────────────────────────────
+
+    private static String[] labels(String prefix, int count) {
+        String[] out = new String[count];
+        for (int i = 0; i < count; i++)
+            out[i] = String.format(Locale.ROOT, "%s%03d", prefix, i);
+        return out;
+    }
+
+    /** Zipf 累積分佈：第 k 個分類的權重為 1 / (k+1)^skew */
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < n; k++)
+            cdf[k] /= total;
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double u) {
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,114 @@
+package com.datrixpath.myapplication.dashboard;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.datrixpath.myapplication.R;
+import com.datrixpath.myapplication.bridge.ChartWebViewPool;
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+/**
+ * ChartCardAdapter — 回收式儀表板的卡片 Adapter
+ *
+ * ViewHolder 在 bind 時向 ChartWebViewPool 取得一個預熱的 WebView，
+ * 之後隨捲動 bind 不同的 ChartUIModel（payload 由共用的 ChartPayloadCache 提供）。
+ * ViewHolder 被回收（onViewRecycled / onFailedToRecycleView）時歸還 WebView，
+ * 因此 RecyclerView 之後丟棄 ViewHolder 也不會帶走 WebView；
+ * WebView 數量 = 已 bind 的卡片數 + 池子的閒置上限，不隨圖表總數成長。
+ */
+public class ChartCardAdapter extends ListAdapter<ChartUIModel, ChartCardAdapter.CardHolder> {
+
+    private final ChartWebViewPool pool;
+
+    public ChartCardAdapter(ChartWebViewPool pool) {
+        super(DIFF);
+        this.pool = pool;
+    }
+
+    @NonNull
+    @Override
+    public CardHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View item = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_chart_card, parent, false);
+        return new CardHolder(item);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CardHolder holder, int position) {
+        if (holder.slot == null)
+            holder.attach(pool.acquire());
+        holder.slot.show(getItem(position));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull CardHolder holder) {
+        holder.detach(pool);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull CardHolder holder) {
+        // 動畫中（transient state）的 View 無法正常回收：仍歸還 WebView，重新 bind 時再取
+        holder.detach(pool);
+        return true;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // ViewHolder
+    // ─────────────────────────────────────────────────────────────
+
+    public static class CardHolder extends RecyclerView.ViewHolder {
+        private final FrameLayout host;
+        private ChartWebViewPool.Slot slot = null; // 只在 bind 期間持有
+
+        CardHolder(@NonNull View itemView) {
+            super(itemView);
+            this.host = itemView.findViewById(R.id.chartCardWebHost);
+        }
+
+        /** 目前持有的 Slot；已回收時為 null */
+        public ChartWebViewPool.Slot getSlot() {
+            return slot;
+        }
+
+        void attach(ChartWebViewPool.Slot slot) {
+            this.slot = slot;
+            WebView webView = slot.getWebView();
+            if (webView.getParent() instanceof ViewGroup)
+                ((ViewGroup) webView.getParent()).removeView(webView);
+            host.addView(webView, new FrameLayout.LayoutParams(
+                    FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        }
+
+        void detach(ChartWebViewPool pool) {
+            if (slot == null)
+                return;
+            host.removeView(slot.getWebView());
+            pool.release(slot);
+            slot = null;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // DiffUtil：以 chartId 判斷同一張圖，以實例判斷內容是否更新
+    // ─────────────────────────────────────────────────────────────
+
+    private static final DiffUtil.ItemCallback<ChartUIModel> DIFF = new DiffUtil.ItemCallback<ChartUIModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ChartUIModel oldItem, @NonNull ChartUIModel newItem) {
+            return oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ChartUIModel oldItem, @NonNull ChartUIModel newItem) {
+            return oldItem == newItem;
+        }
+    };
+}
@@ -0,0 +1,278 @@
+package com.datrixpath.myapplication.data;
+
+import com.datrixpath.myapplication.filter.ColumnTable;
+import com.datrixpath.myapplication.model.Dataset;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * HttpChartSource — 圖表資料的 HTTP 來源（條件式請求 + 磁碟快取 + 請求合併）
+ *
+ * 取代 ChartPresetFactory 中的 mock 資料：
+ * 1. 第一次請求 → 200，回應一邊寫入磁碟暫存檔一邊計算雜湊，內容有變更才以 JsonColumnReader 解析成 ColumnTable
+ * 2. 之後的請求帶 If-None-Match / If-Modified-Since → 304 時不下載、不解析，直接沿用上一份結果
+ * 3. 程序重啟後記憶體沒有結果 → 仍送條件式請求，304 時改由磁碟內容解析
+ * 4. 多張圖表同時請求同一個端點 → 只發出一個請求，其餘呼叫端等待同一份結果
+ *
+ * 伺服器不支援驗證標頭時，以內容雜湊判斷：內容相同的 200 視為未變更，不重新解析。
+ * 磁碟快取以 URL + 請求標頭（例如 Authorization）為鍵，不同身分的回應不會互相沿用。
+ * 未變更時回傳同一個 ColumnTable / Dataset 實例，下游（ChartPayloadCache、DatasetRegistry）
+ * 以實例判斷即可略過重新序列化與重新傳送。
+ *
+ * load() 會阻塞（網路 + 解析），請在背景執行緒呼叫。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * HttpChartSource source = new HttpChartSource.Builder(new File(context.getCacheDir(), "chart-http"))
+ *         .header("Authorization", "Bearer " + token)
+ *         .build();
+ * HttpChartSource.Response res = source.load("https://api.example.com/revenue", "data.items");
+ * Dataset revenue = res.getDataset("channel_revenue"); // 未變更時為同一實例
+ * </pre>
+ */
+public class HttpChartSource {
+
+    public static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 15_000;
+
+    /** 一份解析完成的資料（不可變）；未變更的請求會沿用同一份 */
+    private static final class Snapshot {
+        final ColumnTable table;
+        final String contentHash;
+        private final ConcurrentHashMap<String, Dataset> datasets = new ConcurrentHashMap<>();
+
+        Snapshot(ColumnTable table, String contentHash) {
+            this.table = table;
+            this.contentHash = contentHash;
+        }
+
+        Dataset dataset(String id) {
+            return datasets.computeIfAbsent(id, k -> new Dataset.Builder(k, table.asRows()).build());
+        }
+    }
+
+    /** load() 的結果 */
+    public static final class Response {
+        private final Snapshot snapshot;
+        private final boolean changed;
+        private final boolean fromNetwork;
+
+        Response(Snapshot snapshot, boolean changed, boolean fromNetwork) {
+            this.snapshot = snapshot;
+            this.changed = changed;
+            this.fromNetwork = fromNetwork;
+        }
+
+        public ColumnTable getTable() {
+            return snapshot.table;
+        }
+
+        /** 以此資料建立的共用 Dataset；資料未變更時回傳與上一次相同的實例 */
+        public Dataset getDataset(String datasetId) {
+            return snapshot.dataset(datasetId);
+        }
+
+        /** 與此程序中上一次的結果相比，資料是否有變更（第一次載入一律為 true） */
+        public boolean isChanged() {
+            return changed;
+        }
+
+        /** 是否下載了回應內容（false = 304，內容來自記憶體或磁碟快取） */
+        public boolean isFromNetwork() {
+            return fromNetwork;
+        }
+    }
+
+    private final ResponseDiskCache disk;
+    private final Map<String, String> headers;
+    private final int timeoutMillis;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, FutureTask<Response>> inFlight = new ConcurrentHashMap<>();
+
+    private HttpChartSource(Builder builder) {
+        this.headers = new LinkedHashMap<>(builder.headers);
+        this.disk = new ResponseDiskCache(builder.cacheDir, builder.maxCacheBytes, headers);
+        this.timeoutMillis = builder.timeoutMillis;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 載入
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 取得 url 的資料並解析成欄式表。相同 url + rowsPath 的並行呼叫共用同一個請求。
+     *
+     * @param rowsPath row 陣列在回應中的路徑（見 JsonColumnReader），null 表示根節點
+     */
+    public Response load(String url, String rowsPath) throws IOException {
+        String key = rowsPath == null ? url : url + "#" + rowsPath;
+        FutureTask<Response> task = new FutureTask<>(() -> fetch(key, url, rowsPath));
+        FutureTask<Response> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+            running = task;
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException("failed to load " + url, cause);
+        }
+    }
+
+    /** 丟棄記憶體與磁碟中的快取（下一次 load 一定重新下載） */
+    public void invalidate(String url) {
+        snapshots.keySet().removeIf(k -> k.equals(url) || k.startsWith(url + "#"));
+        disk.remove(url);
+    }
+
+    private Response fetch(String key, String url, String rowsPath) throws IOException {
+        Snapshot previous = snapshots.get(key);
+        ResponseDiskCache.Meta cached = disk.meta(url);
+
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            conn.setUseCaches(false); // 快取由本類別管理
+            conn.setConnectTimeout(timeoutMillis);
+            conn.setReadTimeout(timeoutMillis);
+            conn.setRequestProperty("Accept", "application/json");
+            for (Map.Entry<String, String> h : headers.entrySet())
+                conn.setRequestProperty(h.getKey(), h.getValue());
+            if (cached != null) {
+                if (cached.etag != null)
+                    conn.setRequestProperty("If-None-Match", cached.etag);
+                if (cached.lastModified != null)
+                    conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+
+            int code = conn.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null)
+                return notModified(key, url, rowsPath, previous, cached);
+            if (code != HttpURLConnection.HTTP_OK)
+                throw new IOException("HTTP " + code + ": " + url);
+
+            try (InputStream body = conn.getInputStream()) {
+                return downloaded(key, url, rowsPath, previous, body,
+                        conn.getHeaderField("ETag"), conn.getHeaderField("Last-Modified"));
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /** 304：記憶體有同一份內容就直接沿用，否則由磁碟內容解析（例如本程序第一次載入） */
+    private Response notModified(String key, String url, String rowsPath, Snapshot previous,
+            ResponseDiskCache.Meta cached) throws IOException {
+        disk.touch(url);
+        // 同一 url 的其他 rowsPath 可能已下載較新的內容，雜湊相同才能沿用
+        if (previous != null && cached.contentHash != null && cached.contentHash.equals(previous.contentHash))
+            return new Response(previous, false, false);
+        File body = disk.body(url);
+        if (body == null)
+            throw new IOException("cache entry vanished: " + url);
+        Snapshot snapshot;
+        try (InputStream in = new FileInputStream(body)) {
+            snapshot = new Snapshot(JsonColumnReader.read(in, rowsPath), cached.contentHash);
+        }
+        snapshots.put(key, snapshot);
+        return new Response(snapshot, true, false);
+    }
+
+    /**
+     * 200：一邊寫入暫存檔、一邊計算雜湊；與上一份相同時只更新快取的驗證標頭，不解析。
+     * 內容有變更時由暫存檔解析，解析成功才寫入快取（格式錯誤的回應不會留在磁碟上）。
+     */
+    private Response downloaded(String key, String url, String rowsPath, Snapshot previous,
+            InputStream body, String etag, String lastModified) throws IOException {
+        File tmp = disk.beginWrite(url);
+        MessageDigest digest = ResponseDiskCache.sha1();
+        try (InputStream in = new DigestInputStream(body, digest); OutputStream out = new FileOutputStream(tmp)) {
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) >= 0;)
+                out.write(buf, 0, n);
+        } catch (IOException | RuntimeException e) {
+            tmp.delete();
+            throw e;
+        }
+        String hash = ResponseDiskCache.hex(digest.digest());
+        ResponseDiskCache.Meta meta = new ResponseDiskCache.Meta(etag, lastModified, hash);
+
+        if (previous != null && hash.equals(previous.contentHash)) {
+            disk.commit(url, tmp, meta);
+            return new Response(previous, false, true);
+        }
+        ColumnTable table;
+        try (InputStream in = new FileInputStream(tmp)) {
+            table = JsonColumnReader.read(in, rowsPath);
+        } catch (IOException | RuntimeException e) {
+            tmp.delete();
+            throw e;
+        }
+        disk.commit(url, tmp, meta);
+        Snapshot snapshot = new Snapshot(table, hash);
+        snapshots.put(key, snapshot);
+        return new Response(snapshot, true, true);
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+        private final File cacheDir;
+        private long maxCacheBytes = DEFAULT_CACHE_BYTES;
+        private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+
+        public Builder(File cacheDir) {
+            this.cacheDir = cacheDir;
+        }
+
+        public Builder maxCacheBytes(long maxCacheBytes) {
+            this.maxCacheBytes = maxCacheBytes;
+            return this;
+        }
+
+        /** 連線與讀取逾時（毫秒） */
+        public Builder timeout(int timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /** 每個請求都附加的標頭（例如 Authorization）；也是磁碟快取鍵的一部分 */
+        public Builder header(String name, String value) {
+            this.headers.put(name, value);
+            return this;
+        }
+
+        public HttpChartSource build() {
+            if (cacheDir == null)
+                throw new IllegalArgumentException("cacheDir cannot be null");
+            if (maxCacheBytes <= 0)
+                throw new IllegalArgumentException("maxCacheBytes must be positive");
+            return new HttpChartSource(this);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.datrixpath.myapplication.data;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.datrixpath.myapplication.filter.ColumnTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JsonColumnReader — API 回應（JSON）直接串流解析成 ColumnTable
+ *
+ * 不經過 JSONArray / Map 樹：每讀到一個欄位值就寫入對應的欄位緩衝區，
+ * 數值進 double[]，字串進字典編碼 int[]。記憶體與解析時間只與 row × 欄位數成正比。
+ *
+ * 支援的形狀：
+ *
+ * <pre>
+ * [ {"date": "Jan", "revenue": 5000}, ... ] // rowsPath = null
+ * {"meta": {...}, "data": {"items": [ {...}, ... ]}} // rowsPath = "data.items"
+ * </pre>
+ *
+ * row 物件中的巢狀物件 / 陣列會被略過；null 視為缺值；布林值以字串 "true" / "false" 保存。
+ */
+public final class JsonColumnReader {
+
+    private JsonColumnReader() {
+    }
+
+    /**
+     * 解析 in（UTF-8），不關閉串流。
+     *
+     * @param rowsPath 以 "." 分隔的物件路徑，指向 row 陣列；null 或空字串表示根節點即為陣列
+     */
+    public static ColumnTable read(InputStream in, String rowsPath) throws IOException {
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        String[] path = rowsPath == null || rowsPath.isEmpty() ? new String[0] : rowsPath.split("\\.");
+        if (!seek(reader, path, 0))
+            throw new IOException("rows not found at path: " + rowsPath);
+        return readRows(reader);
+    }
+
+    /** 逐層進入 path 指定的物件欄位，停在 row 陣列之前 */
+    private static boolean seek(JsonReader reader, String[] path, int depth) throws IOException {
+        if (depth == path.length)
+            return reader.peek() == JsonToken.BEGIN_ARRAY;
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+            return false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (path[depth].equals(reader.nextName()))
+                return seek(reader, path, depth + 1);
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static ColumnTable readRows(JsonReader reader) throws IOException {
+        ColumnTable.Builder table = new ColumnTable.Builder();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                switch (reader.peek()) {
+                    case NUMBER:
+                        table.number(field, reader.nextDouble());
+                        break;
+                    case STRING:
+                        table.string(field, reader.nextString());
+                        break;
+                    case BOOLEAN:
+                        table.string(field, String.valueOf(reader.nextBoolean()));
+                        break;
+                    default: // null / 巢狀結構：視為缺值
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            table.endRow();
+        }
+        reader.endArray();
+        return table.build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.datrixpath.myapplication.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * ResponseDiskCache — HttpChartSource 的磁碟快取
+ *
+ * 每個 URL 兩個檔案（檔名 = URL 與請求標頭的 SHA-1）：
+ * - {key}.body → 原始回應內容
+ * - {key}.meta → ETag / Last-Modified / 內容雜湊（Properties 格式）
+ *
+ * 請求標頭（例如 Authorization）納入檔名：不同身分對同一 URL 的回應分開保存，
+ * 304 也只會沿用以相同標頭取得的內容。標頭值只出現在雜湊中，不寫入 .meta。
+ *
+ * 寫入先到暫存檔，完成後才 rename，程序中斷不會留下半份資料。
+ * 總大小超過 maxBytes 時，依最後使用時間（檔案修改時間）淘汰最舊的項目。
+ */
+final class ResponseDiskCache {
+
+    private static final String BODY = ".body";
+    private static final String META = ".meta";
+    private static final String TMP = ".tmp";
+
+    /** 驗證用的中繼資料；欄位可為 null */
+    static final class Meta {
+        final String etag;
+        final String lastModified;
+        final String contentHash;
+
+        Meta(String etag, String lastModified, String contentHash) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+        }
+    }
+
+    private final File dir;
+    private final long maxBytes;
+    private final String variant; // 請求標頭的正規化字串（名稱不分大小寫、依名稱排序）
+
+    ResponseDiskCache(File dir, long maxBytes, Map<String, String> requestHeaders) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Map<String, String> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sorted.putAll(requestHeaders);
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> h : sorted.entrySet())
+            sb.append('\n').append(h.getKey().toLowerCase(Locale.ROOT)).append(": ").append(h.getValue());
+        this.variant = sb.toString();
+    }
+
+    /** 快取的回應內容；不存在時回傳 null */
+    File body(String url) {
+        File file = new File(dir, key(url) + BODY);
+        return file.isFile() ? file : null;
+    }
+
+    /** 快取的中繼資料；不存在或內容檔已遺失時回傳 null */
+    Meta meta(String url) {
+        String key = key(url);
+        File file = new File(dir, key + META);
+        if (!file.isFile() || !new File(dir, key + BODY).isFile())
+            return null;
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        return new Meta(props.getProperty("etag"), props.getProperty("lastModified"),
+                props.getProperty("contentHash"));
+    }
+
+    /** 開始寫入新的回應內容（暫存檔），完成後呼叫 commit */
+    File beginWrite(String url) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("cannot create cache dir: " + dir);
+        return new File(dir, key(url) + TMP);
+    }
+
+    /** 將暫存檔轉為正式內容並寫入中繼資料 */
+    void commit(String url, File tmp, Meta meta) throws IOException {
+        String key = key(url);
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        if (meta.etag != null)
+            props.setProperty("etag", meta.etag);
+        if (meta.lastModified != null)
+            props.setProperty("lastModified", meta.lastModified);
+        if (meta.contentHash != null)
+            props.setProperty("contentHash", meta.contentHash);
+        try (OutputStream out = new FileOutputStream(new File(dir, key + META))) {
+            props.store(out, null);
+        }
+        File body = new File(dir, key + BODY);
+        if (!tmp.renameTo(body)) {
+            tmp.delete();
+            throw new IOException("cannot commit cache entry: " + body);
+        }
+        trim();
+    }
+
+    /** 304 命中：更新最後使用時間（LRU） */
+    void touch(String url) {
+        File body = body(url);
+        if (body != null)
+            body.setLastModified(System.currentTimeMillis());
+    }
+
+    void remove(String url) {
+        String key = key(url);
+        new File(dir, key + BODY).delete();
+        new File(dir, key + META).delete();
+    }
+
+    private void trim() {
+        File[] bodies = dir.listFiles((d, name) -> name.endsWith(BODY));
+        if (bodies == null)
+            return;
+        long total = 0;
+        for (File f : bodies)
+            total += f.length();
+        if (total <= maxBytes)
+            return;
+        Arrays.sort(bodies, Comparator.comparingLong(File::lastModified));
+        for (File f : bodies) {
+            if (total <= maxBytes)
+                break;
+            total -= f.length();
+            String key = f.getName().substring(0, f.getName().length() - BODY.length());
+            f.delete();
+            new File(dir, key + META).delete();
+        }
+    }
+
+    private String key(String url) {
+        return hex(sha1().digest((url + variant).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 所有 Android / JVM 都內建 SHA-1
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+}
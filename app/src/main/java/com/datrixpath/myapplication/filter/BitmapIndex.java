@@ -0,0 +1,106 @@
+package com.datrixpath.myapplication.filter;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BitmapIndex — 類別欄位的壓縮點陣圖索引
+ *
+ * 每個類別欄位的每個值各有一份 row 集合，依密度選擇表示法（同 Roaring 的容器概念）：
+ * - 稠密值（出現次數 ≥ rows / 32）→ BitSet，每 row 1 bit
+ * - 稀疏值 → 排序好的 int[] row id，每筆 4 bytes
+ * 因此單一欄位的索引大小上限約為 8 bytes × rows，與欄位基數無關。
+ *
+ * 篩選條件 = 欄位內 OR、欄位間 AND，結果以 BitSet 表示，以 64-bit word 運算。
+ * 索引依欄位延遲建立（第一次被篩選時才建），建立成本 O(rows)。
+ */
+final class BitmapIndex {
+
+    /** 稀疏 / 稠密切換門檻：int[] 的 32 bits ≥ BitSet 的 rows bits 時改用 BitSet */
+    private static final int DENSE_RATIO = 32;
+
+    private static final class Posting {
+        final BitSet bits; // 稠密
+        final int[] rows; // 稀疏
+
+        Posting(BitSet bits, int[] rows) {
+            this.bits = bits;
+            this.rows = rows;
+        }
+    }
+
+    private final ColumnTable table;
+    private final Map<String, Posting[]> columns = new HashMap<>();
+
+    BitmapIndex(ColumnTable table) {
+        this.table = table;
+    }
+
+    /** 欄位內多個值的聯集（新物件，可修改） */
+    BitSet union(String field, Iterable<Integer> codes) {
+        BitSet out = new BitSet(table.getRowCount());
+        Posting[] postings = column(field);
+        if (postings == null)
+            return out;
+        for (int code : codes) {
+            if (code < 0 || code >= postings.length)
+                continue;
+            Posting p = postings[code];
+            if (p.bits != null) {
+                out.or(p.bits);
+            } else {
+                for (int row : p.rows)
+                    out.set(row);
+            }
+        }
+        return out;
+    }
+
+    /** 預先建立欄位索引（非類別欄位略過） */
+    void build(String field) {
+        column(field);
+    }
+
+    private synchronized Posting[] column(String field) {
+        Posting[] postings = columns.get(field);
+        if (postings != null)
+            return postings;
+        int[] codes = table.codes(field);
+        List<String> dict = table.dictionary(field);
+        if (codes == null || dict == null)
+            return null;
+
+        // 第一輪：計數，決定每個值的表示法
+        int[] counts = new int[dict.size()];
+        for (int code : codes)
+            counts[code]++;
+        int denseThreshold = Math.max(1, codes.length / DENSE_RATIO);
+
+        BitSet[] bits = new BitSet[counts.length];
+        int[][] rows = new int[counts.length][];
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] >= denseThreshold)
+                bits[c] = new BitSet(codes.length);
+            else
+                rows[c] = new int[counts[c]];
+        }
+
+        // 第二輪：填入（row id 依序遞增，稀疏陣列天然有序）
+        int[] fill = new int[counts.length];
+        for (int i = 0; i < codes.length; i++) {
+            int c = codes[i];
+            if (bits[c] != null)
+                bits[c].set(i);
+            else
+                rows[c][fill[c]++] = i;
+        }
+
+        postings = new Posting[counts.length];
+        for (int c = 0; c < counts.length; c++)
+            postings[c] = new Posting(bits[c], rows[c]);
+        columns.put(field, postings);
+        return postings;
+    }
+}
@@ -0,0 +1,354 @@
+package com.datrixpath.myapplication.filter;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * ColumnTable — 欄式資料表（List&lt;Map&gt; 的緊湊表示）
+ *
+ * 每個欄位依內容自動分類：
+ * - 數值欄位（所有值都是 Number）→ double[]
+ * - 類別欄位（其餘）→ 字典編碼 int[] codes + List&lt;String&gt; dictionary
+ *
+ * 字典依第一次出現的順序編號，與 JS 端 pivotData 的分類順序一致。
+ * 建立後不可變，可安全地在多執行緒間共用。
+ *
+ * 建立方式：
+ * - fromRows(rows) → 由既有的 List&lt;Map&gt; 轉換
+ * - Builder → 逐格附加（例如 JsonColumnReader 串流解析），不產生任何 Map
+ *
+ * asRows() 提供唯讀的 List&lt;Map&gt; 視圖（存取時才讀欄位），
+ * 可直接作為 ChartUIModel / Dataset 的 source。
+ */
+public final class ColumnTable {
+
+    private final int rowCount;
+    private final List<String> fields = new ArrayList<>();
+    private final Map<String, double[]> numeric = new HashMap<>();
+    private final Map<String, int[]> codes = new HashMap<>();
+    private final Map<String, List<String>> dictionaries = new HashMap<>();
+    private final Map<String, Map<String, Integer>> lookups = new HashMap<>();
+
+    private ColumnTable(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * 由扁平 row 清單建立欄式表。缺值在數值欄位記為 0，在類別欄位記為 "null"。
+     */
+    public static ColumnTable fromRows(List<Map<String, Object>> rows) {
+        if (rows instanceof RowList)
+            return ((RowList) rows).table(); // 本身就是 ColumnTable 的視圖
+        ColumnTable table = new ColumnTable(rows.size());
+        Set<String> fields = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows)
+            fields.addAll(row.keySet());
+        table.fields.addAll(fields);
+
+        for (String field : fields) {
+            boolean allNumbers = true;
+            for (Map<String, Object> row : rows) {
+                Object v = row.get(field);
+                if (v != null && !(v instanceof Number)) {
+                    allNumbers = false;
+                    break;
+                }
+            }
+            if (allNumbers) {
+                double[] values = new double[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Object v = rows.get(i).get(field);
+                    values[i] = v != null ? ((Number) v).doubleValue() : 0;
+                }
+                table.numeric.put(field, values);
+            } else {
+                int[] col = new int[rows.size()];
+                List<String> dict = new ArrayList<>();
+                Map<String, Integer> lookup = new HashMap<>();
+                for (int i = 0; i < col.length; i++) {
+                    String key = String.valueOf(rows.get(i).get(field));
+                    Integer code = lookup.get(key);
+                    if (code == null) {
+                        code = dict.size();
+                        dict.add(key);
+                        lookup.put(key, code);
+                    }
+                    col[i] = code;
+                }
+                table.codes.put(field, col);
+                table.dictionaries.put(field, Collections.unmodifiableList(dict));
+                table.lookups.put(field, lookup);
+            }
+        }
+        return table;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** 欄位名稱（第一次出現的順序） */
+    public List<String> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * 唯讀的 row 視圖：數值欄位為 Double，類別欄位為字典中的 String。
+     * 每次 get(i) 只建立一個輕量 Map，不複製資料。
+     */
+    public List<Map<String, Object>> asRows() {
+        return new RowList();
+    }
+
+    /** 第 row 列、field 欄的值（不存在的欄位回傳 null） */
+    public Object value(String field, int row) {
+        double[] values = numeric.get(field);
+        if (values != null)
+            return values[row];
+        int[] col = codes.get(field);
+        return col != null ? dictionaries.get(field).get(col[row]) : null;
+    }
+
+    public boolean isCategorical(String field) {
+        return codes.containsKey(field);
+    }
+
+    public boolean isNumeric(String field) {
+        return numeric.containsKey(field);
+    }
+
+    /** 類別欄位的字典編碼；非類別欄位回傳 null */
+    public int[] codes(String field) {
+        return codes.get(field);
+    }
+
+    /** 類別欄位的字典；非類別欄位回傳 null */
+    public List<String> dictionary(String field) {
+        return dictionaries.get(field);
+    }
+
+    /** 類別值對應的編碼；值不存在時回傳 -1 */
+    public int codeOf(String field, String value) {
+        Map<String, Integer> lookup = lookups.get(field);
+        if (lookup == null)
+            return -1;
+        Integer code = lookup.get(value);
+        return code != null ? code : -1;
+    }
+
+    /** 數值欄位；非數值欄位回傳 null */
+    public double[] numbers(String field) {
+        return numeric.get(field);
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Builder：逐列附加，欄位型別隨內容決定
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 逐格附加資料：number / string 寫入目前列，endRow() 結束一列。
+     * 缺值規則與 fromRows 相同（數值欄位補 0，類別欄位補 "null"）；
+     * 數值欄位之後出現字串時整欄轉為類別欄位。
+     */
+    public static final class Builder {
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+        private int rowCount = 0;
+
+        public Builder number(String field, double value) {
+            column(field).putNumber(rowCount, value);
+            return this;
+        }
+
+        public Builder string(String field, String value) {
+            column(field).putString(rowCount, value);
+            return this;
+        }
+
+        public Builder endRow() {
+            rowCount++;
+            return this;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public ColumnTable build() {
+            ColumnTable table = new ColumnTable(rowCount);
+            for (Map.Entry<String, Column> entry : columns.entrySet()) {
+                String field = entry.getKey();
+                Column column = entry.getValue();
+                column.padTo(rowCount);
+                table.fields.add(field);
+                if (column.codes == null) {
+                    table.numeric.put(field, Arrays.copyOf(column.numbers, rowCount));
+                } else {
+                    table.codes.put(field, Arrays.copyOf(column.codes, rowCount));
+                    table.dictionaries.put(field, Collections.unmodifiableList(column.dict));
+                    table.lookups.put(field, column.lookup);
+                }
+            }
+            return table;
+        }
+
+        private Column column(String field) {
+            Column column = columns.get(field);
+            if (column == null) {
+                column = new Column();
+                columns.put(field, column);
+            }
+            return column;
+        }
+    }
+
+    /** 可成長的單一欄位：numbers 與 codes 擇一使用 */
+    private static final class Column {
+        double[] numbers = new double[16];
+        int[] codes; // 非 null = 類別欄位
+        List<String> dict;
+        Map<String, Integer> lookup;
+        int size = 0;
+
+        void putNumber(int row, double value) {
+            if (codes != null) {
+                putString(row, formatNumber(value));
+                return;
+            }
+            padTo(row);
+            if (size == numbers.length)
+                numbers = Arrays.copyOf(numbers, size * 2);
+            numbers[size++] = value;
+        }
+
+        void putString(int row, String value) {
+            if (codes == null)
+                toCategorical();
+            padTo(row);
+            if (size == codes.length)
+                codes = Arrays.copyOf(codes, size * 2);
+            codes[size++] = codeOf(value);
+        }
+
+        /** 補齊缺值直到 row（不含） */
+        void padTo(int row) {
+            while (size < row) {
+                if (codes != null) {
+                    if (size == codes.length)
+                        codes = Arrays.copyOf(codes, Math.max(row, size * 2));
+                    codes[size++] = codeOf("null");
+                } else {
+                    if (size == numbers.length)
+                        numbers = Arrays.copyOf(numbers, Math.max(row, size * 2));
+                    numbers[size++] = 0;
+                }
+            }
+        }
+
+        private void toCategorical() {
+            dict = new ArrayList<>();
+            lookup = new HashMap<>();
+            codes = new int[Math.max(16, numbers.length)];
+            for (int i = 0; i < size; i++)
+                codes[i] = codeOf(formatNumber(numbers[i]));
+            numbers = null;
+        }
+
+        private int codeOf(String key) {
+            Integer code = lookup.get(key);
+            if (code == null) {
+                code = dict.size();
+                dict.add(key);
+                lookup.put(key, code);
+            }
+            return code;
+        }
+
+        /** 整數值不帶小數點，與 String.valueOf(Integer / Long) 相同 */
+        private static String formatNumber(double v) {
+            return v == Math.rint(v) && Math.abs(v) < 1e15 ? String.valueOf((long) v) : String.valueOf(v);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // List<Map> 視圖
+    // ─────────────────────────────────────────────────────────────
+
+    private final class RowList extends AbstractList<Map<String, Object>> implements RandomAccess {
+        ColumnTable table() {
+            return ColumnTable.this;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= rowCount)
+                throw new IndexOutOfBoundsException("row " + index + " of " + rowCount);
+            return new RowMap(index);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+
+    private final class RowMap extends AbstractMap<String, Object> {
+        private final int row;
+
+        RowMap(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? value((String) key, row) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return numeric.containsKey(key) || codes.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < fields.size();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext())
+                                throw new NoSuchElementException();
+                            String field = fields.get(next++);
+                            return new SimpleImmutableEntry<>(field, value(field, row));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return fields.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.datrixpath.myapplication.filter;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CrossFilterEngine — 連動篩選引擎（點選一張圖，篩選同資料來源的其他圖表）
+ *
+ * 流程：
+ * 1. link(model) → 依 model.getCrossFilterSource() 將圖表掛到資料來源（只更新對照表，不建索引）
+ *    同一 sourceId 的圖表應引用同一份 rows（例如共用 Dataset）；rows 換成新實例視為資料更新，
+ *    重建來源並清除該來源上的選取（新資料的字典編碼不同，圖表也已以完整資料重繪）。
+ *    最後一張圖表 unlink 時釋放來源與索引。
+ * 2. prepare(chartId) → 在背景執行緒建立 ColumnTable、分組欄位的 BitmapIndex 與未篩選的聚合
+ *    （未預先建立時於第一次選取時補建）
+ * 3. JS 點選 → ChartWebViewManager 排入背景執行緒 → toggle() 逐一套用點選 → recompute() 一次重算
+ * → 以點陣圖交集計算其餘圖表的篩選結果；沒有篩選的圖表直接使用快取的未篩選聚合
+ * → 回傳 Update 清單，由 ChartWebViewManager 以 updateChartData 推送（isCurrent 過濾過期結果）
+ *
+ * 篩選語意（與 crossfilter.js 相同）：
+ * - 同一張圖重複點選同一值 → 取消該值；點選多個值 → 欄位內 OR
+ * - 不同圖表的篩選 → AND
+ * - 圖表不受自己的篩選影響（保留完整分類供再次點選）
+ * - 推送的資料一律經過同一個聚合（無篩選時 = 全部 row），取消選取不會改變圖表形狀
+ *
+ * 執行緒：所有公開方法皆可在任意執行緒呼叫。對照表（連結、來源、選取）只在短暫的
+ * synchronized 區塊中讀寫；建表、建索引與聚合都在呼叫端執行緒、鎖外進行，
+ * 因此 UI 執行緒的 link / unlink 不會等待背景的計算。toggle / recompute 之間以 computeLock 序列化。
+ */
+public class CrossFilterEngine {
+
+    /** 推送給單一圖表的新資料（與原始 source 相同的扁平 row 形狀；可能為共用的快取，勿修改） */
+    public static final class Update {
+        public final String chartId;
+        public final List<Map<String, Object>> rows;
+        private final Source source; // 計算時的來源，供 isCurrent 判斷資料是否已更新
+
+        Update(String chartId, Source source, List<Map<String, Object>> rows) {
+            this.chartId = chartId;
+            this.source = source;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * 欄式表、索引與未篩選聚合在 prepare()（背景執行緒）或第一次選取時建立，link 本身不做重工。
+     * 建立後不再變更，可在鎖外讀取。
+     */
+    private static final class Source {
+        final List<Map<String, Object>> rows;
+        private ColumnTable table;
+        private BitmapIndex index;
+        // 分組形狀（group, measure, stack）→ 全部 row 的聚合；沒有篩選時直接重用
+        private final Map<List<String>, List<Map<String, Object>>> unfiltered = new HashMap<>();
+
+        Source(List<Map<String, Object>> rows) {
+            this.rows = rows;
+        }
+
+        synchronized ColumnTable table() {
+            if (table == null)
+                table = ColumnTable.fromRows(rows);
+            return table;
+        }
+
+        synchronized BitmapIndex index() {
+            if (index == null)
+                index = new BitmapIndex(table());
+            return index;
+        }
+
+        synchronized List<Map<String, Object>> unfiltered(Link link) {
+            List<String> shape = Arrays.asList(link.groupField, link.measureField, link.stackField);
+            List<Map<String, Object>> rows = unfiltered.get(shape);
+            if (rows == null) {
+                rows = Collections.unmodifiableList(aggregate(this, link, null));
+                unfiltered.put(shape, rows);
+            }
+            return rows;
+        }
+    }
+
+    private static final class Link {
+        final String chartId;
+        final String sourceId;
+        final String groupField; // encode.x 或 encode.itemName
+        final String measureField; // encode.y 或 encode.value
+        final String stackField; // 可為 null
+
+        Link(ChartUIModel model) {
+            Map<String, String> encode = model.getEncode();
+            this.chartId = model.getId();
+            this.sourceId = model.getCrossFilterSource();
+            this.groupField = encode.containsKey("itemName") ? encode.get("itemName") : encode.get("x");
+            this.measureField = encode.containsKey("value") ? encode.get("value") : encode.get("y");
+            this.stackField = model.getStackField();
+        }
+    }
+
+    /** 圖表上的選取（不可變；切換時建立新實例，鎖外讀取 rows 安全） */
+    private static final class Filter {
+        final String field;
+        final Set<Integer> codes;
+        final BitSet rows;
+
+        Filter(String field, Set<Integer> codes, BitSet rows) {
+            this.field = field;
+            this.codes = codes;
+            this.rows = rows;
+        }
+    }
+
+    private final Map<String, Source> sources = new HashMap<>();
+    private final Map<String, Link> links = new LinkedHashMap<>();
+    private final Map<String, Filter> filters = new HashMap<>();
+    private final Object computeLock = new Object();
+
+    // ─────────────────────────────────────────────────────────────
+    // 註冊
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 註冊共用資料來源；相同的 rows 實例只建立一次索引。
+     * rows 換成新實例時重建來源，並清除該來源上所有圖表的選取。
+     */
+    public synchronized void registerSource(String sourceId, List<Map<String, Object>> rows) {
+        Source current = sources.get(sourceId);
+        if (current != null && current.rows == rows)
+            return;
+        sources.put(sourceId, new Source(rows));
+        if (current != null)
+            clearFilters(sourceId);
+    }
+
+    /**
+     * 將圖表掛到其 crossFilterSource；以該圖表的 source 註冊來源（規則同 registerSource）。
+     * 新版 model 不再連動時視同 unlink。
+     */
+    public synchronized void link(ChartUIModel model) {
+        if (model.getCrossFilterSource() == null) {
+            unlink(model.getId());
+            return;
+        }
+        registerSource(model.getCrossFilterSource(), model.getSource());
+        Link previous = links.put(model.getId(), new Link(model));
+        if (previous != null && !previous.sourceId.equals(model.getCrossFilterSource())) {
+            filters.remove(model.getId());
+            if (!isReferenced(previous.sourceId))
+                sources.remove(previous.sourceId);
+        }
+    }
+
+    /** 移除圖表；來源不再被任何圖表引用時一併釋放 */
+    public synchronized void unlink(String chartId) {
+        Link link = links.remove(chartId);
+        filters.remove(chartId);
+        if (link != null && !isReferenced(link.sourceId))
+            sources.remove(link.sourceId);
+    }
+
+    /** 目前保留的資料來源數（測試與除錯用） */
+    public synchronized int getSourceCount() {
+        return sources.size();
+    }
+
+    /**
+     * 預先建立圖表所屬來源的欄式表、分組 / 堆疊欄位的索引與未篩選聚合（O(rows)）。
+     * 在背景執行緒呼叫（link 之後）；之後的選取與取消選取不再需要掃描全部 row。
+     */
+    public void prepare(String chartId) {
+        Link link;
+        Source source;
+        synchronized (this) {
+            link = links.get(chartId);
+            if (link == null)
+                return;
+            source = sources.get(link.sourceId);
+        }
+        BitmapIndex index = source.index();
+        if (link.groupField != null)
+            index.build(link.groupField);
+        if (link.stackField != null)
+            index.build(link.stackField);
+        source.unfiltered(link);
+    }
+
+    /**
+     * 這筆結果是否仍對應頁面上的資料：圖表仍連動且來源未被新的 rows 取代。
+     * 背景計算完成前圖表可能已移除或重繪，推送前應先檢查。
+     */
+    public synchronized boolean isCurrent(Update update) {
+        Link link = links.get(update.chartId);
+        return link != null && sources.get(link.sourceId) == update.source;
+    }
+
+    private boolean isReferenced(String sourceId) {
+        for (Link l : links.values())
+            if (l.sourceId.equals(sourceId))
+                return true;
+        return false;
+    }
+
+    private void clearFilters(String sourceId) {
+        filters.keySet().removeIf(chartId -> {
+            Link owner = links.get(chartId);
+            return owner == null || owner.sourceId.equals(sourceId);
+        });
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 選取 / 清除
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 切換圖表上的一個選取值，回傳需要更新的其他圖表（= toggle + recompute）。
+     * 值不在該欄位字典中（或圖表未連動）時回傳空清單。
+     */
+    public List<Update> select(String chartId, String field, String value) {
+        synchronized (computeLock) {
+            String sourceId = toggle(chartId, field, value);
+            if (sourceId == null)
+                return Collections.emptyList();
+            return recompute(sourceId, Collections.singleton(chartId));
+        }
+    }
+
+    /**
+     * 只切換選取值、不重算，回傳受影響的 sourceId（未變更時回傳 null）。
+     * 連續多次點選可逐一 toggle，再對每個來源呼叫一次 recompute。
+     */
+    public String toggle(String chartId, String field, String value) {
+        synchronized (computeLock) {
+            Link link;
+            Source source;
+            Filter previous;
+            synchronized (this) {
+                link = links.get(chartId);
+                if (link == null)
+                    return null;
+                source = sources.get(link.sourceId);
+                previous = filters.get(chartId);
+            }
+            int code = source.table().codeOf(field, value);
+            if (code < 0)
+                return null;
+
+            Set<Integer> codes = previous != null && previous.field.equals(field)
+                    ? new LinkedHashSet<>(previous.codes)
+                    : new LinkedHashSet<>();
+            if (!codes.remove(code))
+                codes.add(code);
+            BitSet rows = codes.isEmpty() ? null : source.index().union(field, codes);
+
+            synchronized (this) {
+                Link current = links.get(chartId);
+                if (current == null || !current.sourceId.equals(link.sourceId) || sources.get(link.sourceId) != source)
+                    return null; // 計算期間圖表已移除或資料已更新
+                if (codes.isEmpty())
+                    filters.remove(chartId);
+                else
+                    filters.put(chartId, new Filter(field, codes, rows));
+            }
+            return link.sourceId;
+        }
+    }
+
+    /** 清除圖表上的選取 */
+    public List<Update> clear(String chartId) {
+        synchronized (computeLock) {
+            Link link;
+            synchronized (this) {
+                link = links.get(chartId);
+                if (link == null || filters.remove(chartId) == null)
+                    return Collections.emptyList();
+            }
+            return recompute(link.sourceId, Collections.singleton(chartId));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 重算（只處理同來源的圖表）
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 重算 sourceId 上的圖表。originChartIds 為這一批點選的圖表：
+     * 只有一張時略過它本身（圖表不受自己的篩選影響），多張時彼此都需要更新。
+     */
+    public List<Update> recompute(String sourceId, Collection<String> originChartIds) {
+        synchronized (computeLock) {
+            String skip = originChartIds.size() == 1 ? originChartIds.iterator().next() : null;
+            Source source;
+            List<Link> targets = new ArrayList<>();
+            Map<String, BitSet> active = new HashMap<>(); // 同來源各圖表的選取
+            synchronized (this) {
+                source = sources.get(sourceId);
+                if (source == null)
+                    return Collections.emptyList();
+                for (Link link : links.values()) {
+                    if (!link.sourceId.equals(sourceId))
+                        continue;
+                    if (!link.chartId.equals(skip))
+                        targets.add(link);
+                    Filter filter = filters.get(link.chartId);
+                    if (filter != null)
+                        active.put(link.chartId, filter.rows);
+                }
+            }
+            List<Update> updates = new ArrayList<>(targets.size());
+            for (Link link : targets) {
+                BitSet mask = maskExcluding(active, link.chartId);
+                // 沒有其他篩選：直接使用快取的未篩選聚合，不掃描遮罩
+                updates.add(new Update(link.chartId, source,
+                        mask == null ? source.unfiltered(link) : aggregate(source, link, mask)));
+            }
+            return updates;
+        }
+    }
+
+    /** 其他圖表篩選的交集；沒有任何篩選時回傳 null（= 全部 row） */
+    private static BitSet maskExcluding(Map<String, BitSet> active, String chartId) {
+        BitSet mask = null;
+        for (Map.Entry<String, BitSet> e : active.entrySet()) {
+            if (e.getKey().equals(chartId))
+                continue;
+            if (mask == null)
+                mask = (BitSet) e.getValue().clone();
+            else
+                mask.and(e.getValue());
+        }
+        return mask;
+    }
+
+    /**
+     * 依圖表的分組欄位（x / itemName [+ stackField]）加總量值欄位；mask == null 表示全部 row。
+     * 分組欄位不是類別、或量值欄位不是數值時（例如散點圖），直接回傳篩選後的原始 row。
+     */
+    private static List<Map<String, Object>> aggregate(Source source, Link link, BitSet mask) {
+        ColumnTable t = source.table();
+        int[] groupCodes = link.groupField != null ? t.codes(link.groupField) : null;
+        double[] measure = link.measureField != null ? t.numbers(link.measureField) : null;
+        int[] stackCodes = link.stackField != null ? t.codes(link.stackField) : null;
+        boolean stacked = link.stackField != null;
+
+        if (groupCodes == null || measure == null || (stacked && stackCodes == null)) {
+            if (mask == null)
+                return source.rows;
+            List<Map<String, Object>> out = new ArrayList<>(mask.cardinality());
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1))
+                out.add(source.rows.get(i));
+            return out;
+        }
+
+        List<String> groupDict = t.dictionary(link.groupField);
+        List<String> stackDict = stacked ? t.dictionary(link.stackField) : null;
+        int stackCard = stacked ? stackDict.size() : 1;
+        double[] sums = new double[groupDict.size() * stackCard];
+        boolean[] present = new boolean[sums.length];
+
+        int n = t.getRowCount();
+        for (int i = next(mask, -1, n); i >= 0; i = next(mask, i, n)) {
+            int cell = groupCodes[i] * stackCard + (stacked ? stackCodes[i] : 0);
+            sums[cell] += measure[i];
+            present[cell] = true;
+        }
+
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (int g = 0; g < groupDict.size(); g++) {
+            for (int s = 0; s < stackCard; s++) {
+                int cell = g * stackCard + s;
+                if (!present[cell])
+                    continue;
+                Map<String, Object> row = new HashMap<>();
+                row.put(link.groupField, groupDict.get(g));
+                if (stacked)
+                    row.put(link.stackField, stackDict.get(s));
+                row.put(link.measureField, sums[cell]);
+                out.add(row);
+            }
+        }
+        return out;
+    }
+
+    /** i 之後的下一個 row；mask == null 時依序走訪全部 row */
+    private static int next(BitSet mask, int i, int n) {
+        if (mask != null)
+            return mask.nextSetBit(i + 1);
+        return i + 1 < n ? i + 1 : -1;
+    }
+}
@@ -1,5 +1,10 @@
 package com.datrixpath.myapplication.model;
 
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,7 +17,7 @@ import java.util.Map;
  * 欄位說明：
  * id -> 圖表唯一識別碼，對應 JS 的 containerId
  * title -> 圖表標題（顯示在卡片頂部）
- * type -> ECharts series 類型：line / bar / pie / scatter / ...
+ * type -> 圖表類型：line / bar / pie / scatter / ... 或 preset 模組（序列化時由 ChartPresetRegistry 檢查）
  * source -> API 原始數組（ECharts dataset.source）
  * dimensions -> 顯式維度定義（可選，不設則由 ECharts 自動推斷）
  * encode -> 欄位映射規則（解決 10 種不同 API 格式的核心）
@@ -20,6 +25,12 @@ import java.util.Map;
  * stackField -> ★ 堆疊分組欄位（可選）。設定後 JS 端自動 pivot 並堆疊系列。
  * 例：stackField="channel" → 自動依 channel 值拆成多系列
  * options -> 個性化覆寫配置（顏色、標籤等），可為 null
+ * crossFilterSource -> 連動篩選資料來源 id（可選）。同來源的圖表點選後互相篩選。
+ * heatmap -> 熱力圖格點（可選）。設定後資料改由 float[] 格點以 tile 傳輸，source 可為空。
+ * dataset -> 共用資料來源（可選）。設定後 source = dataset.getRows()，頁面端只保存一份。
+ * overlays -> 疊加系列（可選）。衍生欄位已在 source 中，JS 端只加上對應的線。
+ * points -> 大型散佈圖的空間索引（可選）。設定後 source 為降採樣密度圖，框選 / 點選由 Android 端查詢。
+ * liveMaxRows -> 即時序列的視窗大小（可選，0 = 非即時）。設定後可用 appendChartData 只推送新的點。
  */
 public class ChartUIModel {
 
@@ -31,6 +42,12 @@ public class ChartUIModel {
     private final Map<String, String> encode;
     private final Map<String, Object> options;
     private final String stackField; // ★ nullable — null 表示不堆疊
+    private final String crossFilterSource; // nullable — null 表示不參與連動篩選
+    private final HeatmapGrid heatmap; // nullable — null 表示一般 row 資料
+    private final Dataset dataset; // nullable — null 表示資料屬於本圖表
+    private final List<SeriesOverlay> overlays; // 空清單表示沒有疊加系列
+    private final PointGridIndex points; // nullable — null 表示一般 row 資料
+    private final int liveMaxRows; // 0 表示非即時序列
 
     private ChartUIModel(Builder builder) {
         this.id = builder.id;
@@ -41,6 +58,12 @@ public class ChartUIModel {
         this.encode = builder.encode;
         this.options = builder.options;
         this.stackField = builder.stackField;
+        this.crossFilterSource = builder.crossFilterSource;
+        this.heatmap = builder.heatmap;
+        this.dataset = builder.dataset;
+        this.overlays = Collections.unmodifiableList(new ArrayList<>(builder.overlays));
+        this.liveMaxRows = builder.liveMaxRows;
+        this.points = builder.points;
     }
 
     // ── Getters ──────────────────────────────────────────────────
@@ -77,6 +100,34 @@ public class ChartUIModel {
         return stackField;
     }
 
+    public String getCrossFilterSource() {
+        return crossFilterSource;
+    }
+
+    public HeatmapGrid getHeatmap() {
+        return heatmap;
+    }
+
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    public List<SeriesOverlay> getOverlays() {
+        return overlays;
+    }
+
+    public PointGridIndex getPoints() {
+        return points;
+    }
+
+    public int getLiveMaxRows() {
+        return liveMaxRows;
+    }
+
+    public boolean isLive() {
+        return liveMaxRows > 0;
+    }
+
     // ── Builder ──────────────────────────────────────────────────
 
     public static class Builder {
@@ -88,12 +139,28 @@ public class ChartUIModel {
         private Map<String, String> encode;
         private Map<String, Object> options = null;
         private String stackField = null; // ★ 新增
+        private String crossFilterSource = null;
+        private HeatmapGrid heatmap = null;
+        private Dataset dataset = null;
+        private final List<SeriesOverlay> overlays = new ArrayList<>();
+        private int liveMaxRows = 0;
+        private PointGridIndex points = null;
 
         public Builder(String id, List<Map<String, Object>> source) {
             this.id = id;
             this.source = source;
         }
 
+        /**
+         * 引用共用 Dataset。source / dimensions 取自 dataset，
+         * encode / stackField / type 仍由各圖表自行設定。
+         */
+        public Builder(String id, Dataset dataset) {
+            this(id, dataset.getRows());
+            this.dimensions = dataset.getDimensions();
+            this.dataset = dataset;
+        }
+
         public Builder title(String title) {
             this.title = title;
             return this;
@@ -129,6 +196,61 @@ public class ChartUIModel {
             return this;
         }
 
+        /**
+         * 加入連動篩選群組。
+         * 例：格式 G 與格式 I 都設 crossFilter("channel_revenue")
+         * → 點選 G 的某個通路，I 只顯示該通路（反之亦然）。
+         */
+        public Builder crossFilter(String sourceId) {
+            this.crossFilterSource = sourceId;
+            return this;
+        }
+
+        /**
+         * 以原始格點作為資料（搭配 type("heatmap")）。
+         * 格點模式不需要 encode；source 傳入空清單即可。
+         */
+        public Builder heatmap(HeatmapGrid grid) {
+            this.heatmap = grid;
+            if (this.encode == null)
+                this.encode = new HashMap<>();
+            return this;
+        }
+
+        /**
+         * 以空間索引作為資料（搭配 type("scatter")）。
+         * source 改為索引的密度圖 {x, y, count}，原始點留在 Android 端；
+         * 頁面框選 / 點選時由 ChartWebViewManager 查詢索引回傳精確結果。
+         * source 傳入空清單即可。
+         */
+        public Builder points(PointGridIndex index) {
+            this.points = index;
+            this.source = index.getDensityRows();
+            this.dimensions = Arrays.asList(PointGridIndex.FIELD_X, PointGridIndex.FIELD_Y,
+                    PointGridIndex.FIELD_COUNT);
+            if (this.encode == null) {
+                this.encode = new HashMap<>();
+                this.encode.put("x", PointGridIndex.FIELD_X);
+                this.encode.put("y", PointGridIndex.FIELD_Y);
+            }
+            return this;
+        }
+
+        /** 加入疊加系列（field 須已存在於 source 的 row 中） */
+        public Builder overlay(SeriesOverlay overlay) {
+            this.overlays.add(overlay);
+            return this;
+        }
+
+        /**
+         * 標記為即時序列：頁面最多保留 maxRows 個點，之後以 appendChartData 只推送新的點。
+         * 僅支援一般直角座標圖（不可與 stackField / heatmap / 共用 Dataset 併用）。
+         */
+        public Builder live(int maxRows) {
+            this.liveMaxRows = maxRows;
+            return this;
+        }
+
         public ChartUIModel build() {
             if (id == null || id.isEmpty())
                 throw new IllegalArgumentException("chartId cannot be empty");
@@ -136,6 +258,10 @@ public class ChartUIModel {
                 throw new IllegalArgumentException("source cannot be null");
             if (encode == null)
                 throw new IllegalArgumentException("encode cannot be null");
+            if (liveMaxRows < 0)
+                throw new IllegalArgumentException("liveMaxRows cannot be negative");
+            if (liveMaxRows > 0 && (stackField != null || heatmap != null || dataset != null || points != null))
+                throw new IllegalArgumentException("live charts cannot use stackField, heatmap, points or a shared dataset");
             return new ChartUIModel(this);
         }
     }
@@ -0,0 +1,78 @@
+package com.datrixpath.myapplication.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dataset — 可被多張圖表共用的資料來源
+ *
+ * 同一份 API 回應常被多張圖表以不同的 encode / stackField / type 呈現
+ * （例如格式 G 堆疊長條與格式 I 百分比長條都使用 channel × month 營收）。
+ * 以 Dataset 包裝後，ChartWebViewManager 只會把資料送到頁面一次，
+ * 各圖表以 datasetId 引用，最後一張引用的圖表移除時才釋放。
+ *
+ * 以實例判斷是否為新版本：資料更新時請建立新的 Dataset（同 id），不要修改 rows。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * Dataset revenue = new Dataset.Builder("channel_revenue", rows).build();
+ * ChartUIModel stacked = new ChartUIModel.Builder("format_g", revenue)
+ *         .type("bar")
+ *         .encode(encode)
+ *         .stackField("channel")
+ *         .build();
+ * </pre>
+ */
+public final class Dataset {
+
+    private final String id;
+    private final List<Map<String, Object>> rows;
+    private final List<String> dimensions; // nullable — null 表示由 row 推斷
+
+    private Dataset(Builder builder) {
+        this.id = builder.id;
+        this.rows = builder.rows;
+        this.dimensions = builder.dimensions;
+    }
+
+    // ── Getters ──────────────────────────────────────────────────
+
+    public String getId() {
+        return id;
+    }
+
+    public List<Map<String, Object>> getRows() {
+        return rows;
+    }
+
+    public List<String> getDimensions() {
+        return dimensions;
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+        private final String id;
+        private final List<Map<String, Object>> rows;
+        private List<String> dimensions = null;
+
+        public Builder(String id, List<Map<String, Object>> rows) {
+            this.id = id;
+            this.rows = rows;
+        }
+
+        public Builder dimensions(List<String> dims) {
+            this.dimensions = dims;
+            return this;
+        }
+
+        public Dataset build() {
+            if (id == null || id.isEmpty())
+                throw new IllegalArgumentException("datasetId cannot be empty");
+            if (rows == null)
+                throw new IllegalArgumentException("rows cannot be null");
+            return new Dataset(this);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.datrixpath.myapplication.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HeatmapGrid — 熱力圖的原始二維格點（float[]，每格 4 bytes）
+ *
+ * 取代 List&lt;Map&gt; 的 row 模型：一百萬格只需 4 MB，而不是一百萬個 HashMap。
+ * 格點以 row-major 存放（index = y * width + x），缺值以 NaN 表示。
+ * 建立時即計算 min / max，供 JS 端 visualMap 直接使用。
+ *
+ * 傳輸以 tile 為單位（tileSize × tileSize 個 float32），並支援縮小層級：
+ * level L 的一格 = 原始 2^L × 2^L 格的平均值（忽略 NaN），
+ * 因此縮到最小時也只需要傳一個 tile。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * HeatmapGrid grid = new HeatmapGrid.Builder(hours, days)
+ *         .set(9, 0, 120f)
+ *         .build();
+ * new ChartUIModel.Builder("activity_heatmap", Collections.emptyList())
+ *         .type("heatmap")
+ *         .heatmap(grid)
+ *         ...
+ * </pre>
+ */
+public final class HeatmapGrid {
+
+    public static final int DEFAULT_TILE_SIZE = 128;
+
+    private final List<String> xLabels;
+    private final List<String> yLabels;
+    private final float[] values;
+    private final int tileSize;
+    private final float min;
+    private final float max;
+
+    private HeatmapGrid(Builder builder) {
+        this.xLabels = Collections.unmodifiableList(new ArrayList<>(builder.xLabels));
+        this.yLabels = Collections.unmodifiableList(new ArrayList<>(builder.yLabels));
+        this.values = builder.values;
+        this.tileSize = builder.tileSize;
+
+        float lo = Float.POSITIVE_INFINITY;
+        float hi = Float.NEGATIVE_INFINITY;
+        for (float v : values) {
+            if (Float.isNaN(v))
+                continue;
+            if (v < lo)
+                lo = v;
+            if (v > hi)
+                hi = v;
+        }
+        // 全部缺值時回傳 0，避免 JSON 出現 Infinity
+        this.min = lo <= hi ? lo : 0f;
+        this.max = lo <= hi ? hi : 0f;
+    }
+
+    // ── Getters ──────────────────────────────────────────────────
+
+    public int getWidth() {
+        return xLabels.size();
+    }
+
+    public int getHeight() {
+        return yLabels.size();
+    }
+
+    public List<String> getXLabels() {
+        return xLabels;
+    }
+
+    public List<String> getYLabels() {
+        return yLabels;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    public float get(int x, int y) {
+        return values[y * getWidth() + x];
+    }
+
+    /** 整張格點縮成單一 tile 所需的層級 */
+    public int getMaxLevel() {
+        int level = 0;
+        while (ceilShift(getWidth(), level) > tileSize || ceilShift(getHeight(), level) > tileSize)
+            level++;
+        return level;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Tile 輸出
+    // ─────────────────────────────────────────────────────────────
+
+    /** 一個 tile 的位元組數（邊緣 tile 以 NaN 補滿，版面固定） */
+    public int tileBytes() {
+        return tileSize * tileSize * 4;
+    }
+
+    /**
+     * 將 level / (tx, ty) 的 tile 寫入 out（little-endian float32，row-major）。
+     * 超出格點範圍或該區塊全為缺值時寫入 NaN。
+     */
+    public void writeTile(int level, int tx, int ty, ByteBuffer out) {
+        int width = getWidth();
+        int height = getHeight();
+        int block = 1 << level;
+        int gx0 = tx * tileSize;
+        int gy0 = ty * tileSize;
+
+        for (int ly = 0; ly < tileSize; ly++) {
+            int y0 = (gy0 + ly) * block;
+            int y1 = Math.min(height, y0 + block);
+            for (int lx = 0; lx < tileSize; lx++) {
+                int x0 = (gx0 + lx) * block;
+                int x1 = Math.min(width, x0 + block);
+                if (y0 >= height || x0 >= width) {
+                    out.putFloat(Float.NaN);
+                    continue;
+                }
+                if (block == 1) {
+                    out.putFloat(values[y0 * width + x0]);
+                    continue;
+                }
+                double sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y++) {
+                    int base = y * width;
+                    for (int x = x0; x < x1; x++) {
+                        float v = values[base + x];
+                        if (!Float.isNaN(v)) {
+                            sum += v;
+                            count++;
+                        }
+                    }
+                }
+                out.putFloat(count > 0 ? (float) (sum / count) : Float.NaN);
+            }
+        }
+    }
+
+    private static int ceilShift(int n, int level) {
+        return (n + (1 << level) - 1) >> level;
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+        private final List<String> xLabels;
+        private final List<String> yLabels;
+        private final float[] values;
+        private int tileSize = DEFAULT_TILE_SIZE;
+
+        /** 建立全為缺值（NaN）的格點 */
+        public Builder(List<String> xLabels, List<String> yLabels) {
+            this(xLabels, yLabels, filledWithNaN(xLabels.size() * yLabels.size()));
+        }
+
+        /** 直接使用既有的 row-major 陣列（不複製） */
+        public Builder(List<String> xLabels, List<String> yLabels, float[] values) {
+            if (values.length != xLabels.size() * yLabels.size())
+                throw new IllegalArgumentException("values length must be width * height");
+            this.xLabels = xLabels;
+            this.yLabels = yLabels;
+            this.values = values;
+        }
+
+        public Builder set(int x, int y, float value) {
+            values[y * xLabels.size() + x] = value;
+            return this;
+        }
+
+        /** 累加（缺值視為 0），適合由事件流計數 */
+        public Builder add(int x, int y, float value) {
+            int i = y * xLabels.size() + x;
+            values[i] = Float.isNaN(values[i]) ? value : values[i] + value;
+            return this;
+        }
+
+        public Builder tileSize(int tileSize) {
+            this.tileSize = tileSize;
+            return this;
+        }
+
+        public HeatmapGrid build() {
+            if (xLabels.isEmpty() || yLabels.isEmpty())
+                throw new IllegalArgumentException("heatmap axes cannot be empty");
+            if (tileSize <= 0)
+                throw new IllegalArgumentException("tileSize must be positive");
+            return new HeatmapGrid(this);
+        }
+
+        private static float[] filledWithNaN(int n) {
+            float[] values = new float[n];
+            Arrays.fill(values, Float.NaN);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.datrixpath.myapplication.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * PointGridIndex — 大型散佈圖的均勻格點空間索引（float[] x / y，不建立 row Map）
+ *
+ * 百萬～千萬點的散佈圖不送進 WebView：
+ * 1. 頁面只收到降採樣後的密度圖（densityCols × densityRows 格，每個非空格一個點 + count）
+ * 2. 框選（brush）與點選（tap）由頁面回呼 AndroidBridge，在此以索引查詢，
+ *    回傳精確的 row id 與聚合值
+ *
+ * 結構（建立成本 O(n)，兩次線性掃描的 counting sort）：
+ * - 約 pointsPerCell 個點一格的 cols × rows 格點
+ * - order：依格排序的 row id，同一格的點在 order 中連續
+ * - cellStart：每格在 order 中的起點（prefix sum）
+ * - cellSumX / cellSumY：每格的座標總和
+ *
+ * 框選時完全落在矩形內的格直接累加 count / sum（並整段複製 row id），
+ * 只有邊界上的格逐點判斷，因此查詢成本約與矩形周長成正比，而不是與點數成正比。
+ * 每點額外記憶體 4 bytes（order），x / y 陣列不複製，建立後請勿修改。
+ * 建立後唯讀，可在任意執行緒查詢。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * PointGridIndex index = new PointGridIndex.Builder(xs, ys).build(); // 背景執行緒
+ * ChartUIModel scatter = new ChartUIModel.Builder("sensor_scatter", Collections.emptyList())
+ *         .type("scatter")
+ *         .points(index)
+ *         .build();
+ * </pre>
+ */
+public final class PointGridIndex {
+
+    public static final String FIELD_X = "x";
+    public static final String FIELD_Y = "y";
+    public static final String FIELD_COUNT = "count";
+
+    public static final int DEFAULT_POINTS_PER_CELL = 16;
+    public static final int DEFAULT_DENSITY_SIZE = 160;
+
+    /** 查詢結果：精確的點數與平均，以及（最多 maxIds 個）row id */
+    public static final class Selection {
+        public static final Selection EMPTY = new Selection(0, 0, 0, new int[0], false);
+
+        private final int count;
+        private final double sumX;
+        private final double sumY;
+        private final int[] ids;
+        private final boolean truncated;
+
+        Selection(int count, double sumX, double sumY, int[] ids, boolean truncated) {
+            this.count = count;
+            this.sumX = sumX;
+            this.sumY = sumY;
+            this.ids = ids;
+            this.truncated = truncated;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMeanX() {
+            return count == 0 ? Double.NaN : sumX / count;
+        }
+
+        public double getMeanY() {
+            return count == 0 ? Double.NaN : sumY / count;
+        }
+
+        /** 選取的 row id（x / y 陣列的索引，依格排序）；truncated 時只含前 maxIds 個 */
+        public int[] getIds() {
+            return ids;
+        }
+
+        /** ids 是否因 maxIds 上限而不完整（count 仍為精確值） */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+
+    private final float[] xs;
+    private final float[] ys;
+    private final int indexed; // 有效（非 NaN）的點數
+    private final float minX, maxX, minY, maxY;
+    private final int cols, rows;
+    private final double scaleX, scaleY; // 1 / 格寬、1 / 格高
+    private final int[] cellStart;
+    private final int[] order;
+    private final double[] cellSumX;
+    private final double[] cellSumY;
+    private final int densityCols, densityRows;
+    private volatile List<Map<String, Object>> density = null;
+    private volatile int densityMax = 0;
+
+    private PointGridIndex(Builder builder) {
+        this.xs = builder.xs;
+        this.ys = builder.ys;
+
+        float x0 = Float.POSITIVE_INFINITY, x1 = Float.NEGATIVE_INFINITY;
+        float y0 = Float.POSITIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+        int valid = 0;
+        for (int i = 0; i < xs.length; i++) {
+            float x = xs[i], y = ys[i];
+            if (Float.isNaN(x) || Float.isNaN(y) || Float.isInfinite(x) || Float.isInfinite(y))
+                continue;
+            valid++;
+            if (x < x0)
+                x0 = x;
+            if (x > x1)
+                x1 = x;
+            if (y < y0)
+                y0 = y;
+            if (y > y1)
+                y1 = y;
+        }
+        this.indexed = valid;
+        // 沒有有效點時以 [0, 1] 為範圍，避免 JSON 出現 Infinity
+        this.minX = valid > 0 ? x0 : 0f;
+        this.maxX = valid > 0 ? x1 : 1f;
+        this.minY = valid > 0 ? y0 : 0f;
+        this.maxY = valid > 0 ? y1 : 1f;
+
+        int side = Math.max(1, (int) Math.ceil(Math.sqrt((double) valid / builder.pointsPerCell)));
+        this.cols = side;
+        this.rows = side;
+        this.scaleX = cols / Math.max(maxX - minX, Float.MIN_NORMAL);
+        this.scaleY = rows / Math.max(maxY - minY, Float.MIN_NORMAL);
+        this.densityCols = builder.densityCols;
+        this.densityRows = builder.densityRows;
+
+        // counting sort：第一次掃描計數，prefix sum 後第二次掃描放入 order
+        int cells = cols * rows;
+        this.cellStart = new int[cells + 1];
+        this.cellSumX = new double[cells];
+        this.cellSumY = new double[cells];
+        for (int i = 0; i < xs.length; i++) {
+            int cell = cellOf(i);
+            if (cell < 0)
+                continue;
+            cellStart[cell + 1]++;
+            cellSumX[cell] += xs[i];
+            cellSumY[cell] += ys[i];
+        }
+        for (int c = 0; c < cells; c++)
+            cellStart[c + 1] += cellStart[c];
+        this.order = new int[valid];
+        int[] cursor = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < xs.length; i++) {
+            int cell = cellOf(i);
+            if (cell >= 0)
+                order[cursor[cell]++] = i;
+        }
+    }
+
+    // ── 格點計算 ─────────────────────────────────────────────────
+
+    private int cellOf(int i) {
+        float x = xs[i], y = ys[i];
+        if (Float.isNaN(x) || Float.isNaN(y) || Float.isInfinite(x) || Float.isInfinite(y))
+            return -1;
+        return row(y) * cols + col(x);
+    }
+
+    private int col(double x) {
+        int c = (int) ((x - minX) * scaleX);
+        return c < 0 ? 0 : Math.min(c, cols - 1);
+    }
+
+    private int row(double y) {
+        int r = (int) ((y - minY) * scaleY);
+        return r < 0 ? 0 : Math.min(r, rows - 1);
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 查詢
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 框選：x0 ≤ x ≤ x1 且 y0 ≤ y ≤ y1 的所有點（端點順序不拘）。
+     *
+     * @param maxIds 最多回傳的 row id 數（count 與平均不受影響）
+     */
+    public Selection queryRect(double x0, double x1, double y0, double y1, int maxIds) {
+        return queryRect(x0, x1, y0, y1, maxIds, () -> false);
+    }
+
+    /**
+     * 可中止的框選：每處理一列格檢查一次 cancelled，成立時放棄並回傳 null
+     * （例如使用者已拖出新的矩形，舊的結果不再需要）。
+     */
+    public Selection queryRect(double x0, double x1, double y0, double y1, int maxIds, BooleanSupplier cancelled) {
+        double lx = Math.min(x0, x1), hx = Math.max(x0, x1);
+        double ly = Math.min(y0, y1), hy = Math.max(y0, y1);
+        if (indexed == 0 || hx < minX || lx > maxX || hy < minY || ly > maxY)
+            return Selection.EMPTY;
+
+        int c0 = col(lx), c1 = col(hx), r0 = row(ly), r1 = row(hy);
+        int count = 0;
+        double sumX = 0, sumY = 0;
+        int[] ids = new int[Math.min(Math.max(maxIds, 0), 1024)];
+        int idCount = 0;
+        boolean truncated = false;
+
+        for (int r = r0; r <= r1; r++) {
+            if (cancelled.getAsBoolean())
+                return null;
+            // 此列格的 y 範圍完全在矩形內，才可能整格計入
+            boolean rowInside = minY + r / scaleY >= ly && minY + (r + 1) / scaleY <= hy;
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                int from = cellStart[cell], to = cellStart[cell + 1];
+                if (from == to)
+                    continue;
+                if (rowInside && minX + c / scaleX >= lx && minX + (c + 1) / scaleX <= hx) {
+                    int n = to - from;
+                    count += n;
+                    sumX += cellSumX[cell];
+                    sumY += cellSumY[cell];
+                    int take = Math.min(n, maxIds - idCount);
+                    if (take < n)
+                        truncated = true;
+                    if (take > 0) {
+                        ids = ensure(ids, idCount + take);
+                        System.arraycopy(order, from, ids, idCount, take);
+                        idCount += take;
+                    }
+                    continue;
+                }
+                for (int k = from; k < to; k++) {
+                    int i = order[k];
+                    float x = xs[i], y = ys[i];
+                    if (x < lx || x > hx || y < ly || y > hy)
+                        continue;
+                    count++;
+                    sumX += x;
+                    sumY += y;
+                    if (idCount < maxIds) {
+                        ids = ensure(ids, idCount + 1);
+                        ids[idCount++] = i;
+                    } else {
+                        truncated = true;
+                    }
+                }
+            }
+        }
+        return new Selection(count, sumX, sumY, Arrays.copyOf(ids, idCount), truncated);
+    }
+
+    /**
+     * 點選：以 (x, y) 為中心、半徑 rx / ry（資料座標，通常由像素半徑換算）的橢圓內最近的點。
+     * 距離以半徑正規化，x / y 軸比例不同時仍符合螢幕上的距離。
+     *
+     * @return row id；範圍內沒有點時回傳 -1
+     */
+    public int nearest(double x, double y, double rx, double ry) {
+        if (indexed == 0 || !(rx > 0) || !(ry > 0))
+            return -1;
+        if (x + rx < minX || x - rx > maxX || y + ry < minY || y - ry > maxY)
+            return -1;
+        int c0 = col(x - rx), c1 = col(x + rx), r0 = row(y - ry), r1 = row(y + ry);
+        int best = -1;
+        double bestDist = 1.0; // 橢圓內（正規化距離² ≤ 1）
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], to = cellStart[cell + 1]; k < to; k++) {
+                    int i = order[k];
+                    double dx = (xs[i] - x) / rx, dy = (ys[i] - y) / ry;
+                    double d = dx * dx + dy * dy;
+                    if (d <= bestDist) {
+                        bestDist = d;
+                        best = i;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** 單一點的選取結果（例如 nearest() 的結果） */
+    public Selection selectRow(int row) {
+        return new Selection(1, xs[row], ys[row], new int[] { row }, false);
+    }
+
+    private static int[] ensure(int[] ids, int size) {
+        if (size <= ids.length)
+            return ids;
+        return Arrays.copyOf(ids, Math.max(size, ids.length * 2));
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 密度圖（送往頁面的降採樣資料）
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * densityCols × densityRows 的密度圖，每個非空格一列：{x, y, count}（x / y 為格中心）。
+     * 第一次呼叫時以一次 O(n) 掃描建立，之後沿用同一份清單。
+     */
+    public List<Map<String, Object>> getDensityRows() {
+        List<Map<String, Object>> rows = density;
+        if (rows == null) {
+            synchronized (this) {
+                rows = density;
+                if (rows == null)
+                    density = rows = buildDensity();
+            }
+        }
+        return rows;
+    }
+
+    /** 密度圖中單格的最大點數（供 visualMap 使用） */
+    public int getDensityMax() {
+        getDensityRows();
+        return densityMax;
+    }
+
+    private List<Map<String, Object>> buildDensity() {
+        int[] counts = new int[densityCols * densityRows];
+        double sx = densityCols / Math.max(maxX - minX, Float.MIN_NORMAL);
+        double sy = densityRows / Math.max(maxY - minY, Float.MIN_NORMAL);
+        for (int i = 0; i < xs.length; i++) { // 依原始順序掃描（循序存取比依 order 快）
+            if (Float.isNaN(xs[i]) || Float.isNaN(ys[i]) || Float.isInfinite(xs[i]) || Float.isInfinite(ys[i]))
+                continue;
+            int c = Math.min((int) ((xs[i] - minX) * sx), densityCols - 1);
+            int r = Math.min((int) ((ys[i] - minY) * sy), densityRows - 1);
+            counts[r * densityCols + c]++;
+        }
+        List<Map<String, Object>> out = new ArrayList<>();
+        int max = 0;
+        for (int r = 0; r < densityRows; r++) {
+            for (int c = 0; c < densityCols; c++) {
+                int n = counts[r * densityCols + c];
+                if (n == 0)
+                    continue;
+                Map<String, Object> row = new HashMap<>(4);
+                row.put(FIELD_X, minX + (c + 0.5) / sx);
+                row.put(FIELD_Y, minY + (r + 0.5) / sy);
+                row.put(FIELD_COUNT, n);
+                out.add(row);
+                max = Math.max(max, n);
+            }
+        }
+        densityMax = max;
+        return Collections.unmodifiableList(out);
+    }
+
+    // ── Getters ──────────────────────────────────────────────────
+
+    /** 有效（非 NaN / Infinity）的點數 */
+    public int getPointCount() {
+        return indexed;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getX(int row) {
+        return xs[row];
+    }
+
+    public float getY(int row) {
+        return ys[row];
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+        private final float[] xs;
+        private final float[] ys;
+        private int pointsPerCell = DEFAULT_POINTS_PER_CELL;
+        private int densityCols = DEFAULT_DENSITY_SIZE;
+        private int densityRows = DEFAULT_DENSITY_SIZE;
+
+        /** xs[i] / ys[i] 為第 i 個 row 的座標（不複製，建立後請勿修改）；NaN 表示缺值 */
+        public Builder(float[] xs, float[] ys) {
+            this.xs = xs;
+            this.ys = ys;
+        }
+
+        /** 每格平均點數；越小框選邊界的逐點判斷越少，但格點陣列越大 */
+        public Builder pointsPerCell(int pointsPerCell) {
+            this.pointsPerCell = pointsPerCell;
+            return this;
+        }
+
+        /** 送往頁面的密度圖解析度 */
+        public Builder densitySize(int cols, int rows) {
+            this.densityCols = cols;
+            this.densityRows = rows;
+            return this;
+        }
+
+        public PointGridIndex build() {
+            if (xs == null || ys == null || xs.length != ys.length)
+                throw new IllegalArgumentException("xs and ys must be non-null and of equal length");
+            if (pointsPerCell < 1)
+                throw new IllegalArgumentException("pointsPerCell must be >= 1");
+            if (densityCols < 1 || densityRows < 1)
+                throw new IllegalArgumentException("density size must be positive");
+            return new PointGridIndex(this);
+        }
+    }
+}
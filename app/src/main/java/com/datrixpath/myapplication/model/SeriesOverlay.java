@@ -0,0 +1,40 @@
+package com.datrixpath.myapplication.model;
+
+/**
+ * SeriesOverlay — 疊加在主系列上的衍生欄位（移動平均、滾動最小 / 最大、Bollinger 帶）
+ *
+ * 衍生值已寫在同一份 source 的 row 中（field 欄位），JS 端只需為每個 overlay
+ * 加一條以 encode.x 為 X 軸的細線系列，不做任何計算。
+ * 通常由 stats.LiveSeries 產生。
+ */
+public final class SeriesOverlay {
+
+    /** 線型：LINE = 實線（平均），BAND = 虛線（上下界） */
+    public enum Style {
+        LINE, BAND
+    }
+
+    private final String field;
+    private final String name;
+    private final Style style;
+
+    public SeriesOverlay(String field, String name, Style style) {
+        if (field == null || field.isEmpty())
+            throw new IllegalArgumentException("field cannot be empty");
+        this.field = field;
+        this.name = name != null ? name : field;
+        this.style = style != null ? style : Style.LINE;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Style getStyle() {
+        return style;
+    }
+}
@@ -0,0 +1,263 @@
+package com.datrixpath.myapplication.stats;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.SeriesOverlay;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LiveSeries — 即時折線圖 + 增量疊加統計（移動平均、滾動最小 / 最大、Bollinger 帶）
+ *
+ * 以一張一般折線圖（encode x / y）為基礎：
+ * 1. 每個新的點經由 RollingWindow 以 O(1) 更新統計，衍生值直接寫入同一個 row
+ *    （例如 value_ma20、value_upper20），成為同一個 ChartUIModel 的衍生欄位
+ * 2. append() 回傳加上衍生欄位的新 row，交給 ChartWebViewManager.appendPoints 推送，
+ *    頁面只附加新的點，不重建圖表
+ * 3. getModel() 回傳目前視窗（最多 maxRows 個點）的快照，用於第一次渲染或頁面重新載入
+ *
+ * 每個點的成本只與疊加數量有關，與視窗長度無關；同一長度的視窗共用一個 RollingWindow。
+ * 值缺漏或非數值的點照常加入，但不更新統計、也不寫入衍生欄位。
+ *
+ * 非執行緒安全；append() 與 getModel() 請在同一執行緒呼叫。
+ *
+ * 使用方式：
+ *
+ * <pre>
+ * LiveSeries live = new LiveSeries.Builder(baseLineChart) // encode = {x: "ts", y: "value"}
+ *         .maxRows(300)
+ *         .movingAverage(20)
+ *         .bollinger(20, 2)
+ *         .build();
+ * manager.renderSingleChart(live.getModel());
+ * // 每次有新資料：
+ * manager.appendPoints(live.getId(), live.append(points));
+ * </pre>
+ */
+public final class LiveSeries {
+
+    public static final int DEFAULT_MAX_ROWS = 500;
+
+    private enum Kind {
+        MEAN, MIN, MAX, UPPER, LOWER
+    }
+
+    private static final class Overlay {
+        final Kind kind;
+        final RollingWindow window;
+        final double k;
+        final SeriesOverlay spec;
+
+        Overlay(Kind kind, RollingWindow window, double k, SeriesOverlay spec) {
+            this.kind = kind;
+            this.window = window;
+            this.k = k;
+            this.spec = spec;
+        }
+
+        /** 目前視窗的統計值；尚無法計算時回傳 NaN */
+        double value() {
+            switch (kind) {
+                case MEAN:
+                    return window.mean();
+                case MIN:
+                    return window.min();
+                case MAX:
+                    return window.max();
+                case UPPER:
+                    return window.size() < 2 ? Double.NaN : window.mean() + k * window.stdDev();
+                default:
+                    return window.size() < 2 ? Double.NaN : window.mean() - k * window.stdDev();
+            }
+        }
+    }
+
+    private final ChartUIModel base;
+    private final String valueField;
+    private final int maxRows;
+    private final List<RollingWindow> windows;
+    private final List<Overlay> overlays;
+    private final List<String> dimensions;
+    private final ArrayDeque<Map<String, Object>> rows;
+    private ChartUIModel snapshot = null; // 自上次 append 後未變更時沿用同一實例
+
+    private LiveSeries(Builder builder) {
+        this.base = builder.base;
+        this.valueField = builder.base.getEncode().get("y");
+        this.maxRows = builder.maxRows;
+
+        Map<Integer, RollingWindow> byLength = new TreeMap<>(); // 同一長度共用一個視窗
+        List<Overlay> list = new ArrayList<>();
+        for (Builder.Spec s : builder.specs)
+            list.add(new Overlay(s.kind, byLength.computeIfAbsent(s.window, RollingWindow::new), s.k,
+                    new SeriesOverlay(s.field, s.name, s.kind == Kind.MEAN
+                            ? SeriesOverlay.Style.LINE
+                            : SeriesOverlay.Style.BAND)));
+        this.overlays = Collections.unmodifiableList(list);
+        this.windows = new ArrayList<>(byLength.values());
+
+        List<String> dims = new ArrayList<>();
+        if (base.getDimensions() != null && !base.getDimensions().isEmpty())
+            dims.addAll(base.getDimensions());
+        else if (!base.getSource().isEmpty())
+            dims.addAll(base.getSource().get(0).keySet());
+        else {
+            dims.add(base.getEncode().get("x"));
+            dims.add(valueField);
+        }
+        for (Overlay o : overlays)
+            if (!dims.contains(o.spec.getField()))
+                dims.add(o.spec.getField());
+        this.dimensions = Collections.unmodifiableList(dims);
+
+        this.rows = new ArrayDeque<>(Math.min(maxRows, 1024));
+        append(base.getSource()); // 以既有資料暖機統計
+    }
+
+    public String getId() {
+        return base.getId();
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 加入新的點
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 加入多個點，回傳加上衍生欄位的新 row（順序相同，可直接推送至頁面）。
+     * 輸入的 Map 不會被修改。
+     */
+    public List<Map<String, Object>> append(List<Map<String, Object>> points) {
+        List<Map<String, Object>> out = new ArrayList<>(points.size());
+        for (Map<String, Object> p : points)
+            out.add(append(p));
+        return out;
+    }
+
+    /** 加入一個點；成本為 O(疊加數量)，與視窗長度無關 */
+    public Map<String, Object> append(Map<String, Object> point) {
+        Map<String, Object> row = new LinkedHashMap<>(point);
+        Object v = point.get(valueField);
+        if (v instanceof Number && !Double.isNaN(((Number) v).doubleValue())) {
+            double x = ((Number) v).doubleValue();
+            for (RollingWindow w : windows)
+                w.add(x);
+            for (Overlay o : overlays) {
+                double value = o.value();
+                if (!Double.isNaN(value) && !Double.isInfinite(value))
+                    row.put(o.spec.getField(), value); // JSON 不接受 NaN / Infinity
+            }
+        }
+        if (rows.size() == maxRows)
+            rows.removeFirst();
+        rows.addLast(row);
+        snapshot = null;
+        return row;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 快照
+    // ─────────────────────────────────────────────────────────────
+
+    /** 目前視窗的完整 model（含衍生欄位與疊加系列）；未 append 時回傳同一實例 */
+    public ChartUIModel getModel() {
+        if (snapshot != null)
+            return snapshot;
+        ChartUIModel.Builder b = new ChartUIModel.Builder(base.getId(), new ArrayList<>(rows))
+                .title(base.getTitle())
+                .type(base.getType())
+                .encode(base.getEncode())
+                .dimensions(dimensions)
+                .options(base.getOptions())
+                .crossFilter(base.getCrossFilterSource())
+                .live(maxRows);
+        for (SeriesOverlay o : base.getOverlays())
+            b.overlay(o);
+        for (Overlay o : overlays)
+            b.overlay(o.spec);
+        snapshot = b.build();
+        return snapshot;
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+
+        private static final class Spec {
+            final Kind kind;
+            final int window;
+            final double k;
+            final String field;
+            final String name;
+
+            Spec(Kind kind, int window, double k, String field, String name) {
+                this.kind = kind;
+                this.window = window;
+                this.k = k;
+                this.field = field;
+                this.name = name;
+            }
+        }
+
+        private final ChartUIModel base;
+        private int maxRows = DEFAULT_MAX_ROWS;
+        private final List<Spec> specs = new ArrayList<>();
+
+        /** base：一般折線 / 長條圖，encode 需包含 x 與 y（y 為統計的數值欄位） */
+        public Builder(ChartUIModel base) {
+            this.base = base;
+        }
+
+        /** 頁面與快照最多保留的點數（較舊的點依序移出） */
+        public Builder maxRows(int maxRows) {
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /** 移動平均 → {y}_ma{window} */
+        public Builder movingAverage(int window) {
+            return add(Kind.MEAN, window, 0, "_ma" + window, "MA" + window);
+        }
+
+        /** 滾動最小 / 最大 → {y}_min{window}、{y}_max{window} */
+        public Builder minMax(int window) {
+            add(Kind.MIN, window, 0, "_min" + window, "Min" + window);
+            return add(Kind.MAX, window, 0, "_max" + window, "Max" + window);
+        }
+
+        /** Bollinger 帶（平均 ± k 倍母體標準差）→ {y}_upper{window}、{y}_lower{window} */
+        public Builder bollinger(int window, double k) {
+            add(Kind.UPPER, window, k, "_upper" + window, "Upper" + window);
+            return add(Kind.LOWER, window, k, "_lower" + window, "Lower" + window);
+        }
+
+        private Builder add(Kind kind, int window, double k, String suffix, String name) {
+            if (window < 1)
+                throw new IllegalArgumentException("window must be >= 1");
+            String y = base != null && base.getEncode() != null ? base.getEncode().get("y") : null;
+            specs.add(new Spec(kind, window, k, y + suffix, name));
+            return this;
+        }
+
+        public LiveSeries build() {
+            if (base == null)
+                throw new IllegalArgumentException("base model cannot be null");
+            Map<String, String> encode = base.getEncode();
+            if (encode.get("x") == null || encode.get("y") == null)
+                throw new IllegalArgumentException("base model must encode both x and y");
+            if (base.getStackField() != null || base.getHeatmap() != null)
+                throw new IllegalArgumentException("live series cannot use stackField or heatmap");
+            if (maxRows < 1)
+                throw new IllegalArgumentException("maxRows must be >= 1");
+            return new LiveSeries(this);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.datrixpath.myapplication.stats;
+
+/**
+ * RollingWindow — 固定長度滑動視窗的增量統計
+ *
+ * 每次 add() 皆為 O(1)（與視窗長度無關），不需要每次重掃整個視窗：
+ * - sum / mean：滑動總和（加入新值、減去移出值，Kahan 補償避免長時間累積誤差）
+ * - min / max：單調佇列（monotonic deque），每個值最多進出佇列各一次 → 攤銷 O(1)
+ * - variance：Welford 演算法，加入與移除皆為 O(1) 的更新
+ *
+ * 所有狀態存放在預先配置的 ring buffer，add() 不配置物件。
+ * 非執行緒安全；每條序列由單一執行緒更新。
+ */
+public final class RollingWindow {
+
+    private final int capacity;
+    private final double[] values; // ring buffer：最近 capacity 個值
+    private long count = 0; // 累計加入的值數（亦作為序號）
+
+    // 滑動總和（Kahan）
+    private double sum = 0;
+    private double sumComp = 0;
+
+    // Welford
+    private double mean = 0;
+    private double m2 = 0;
+
+    // 單調佇列：存放序號，minQ 由小到大、maxQ 由大到小
+    private final long[] minQ;
+    private final long[] maxQ;
+    private int minHead = 0, minSize = 0;
+    private int maxHead = 0, maxSize = 0;
+
+    public RollingWindow(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.values = new double[capacity];
+        this.minQ = new long[capacity];
+        this.maxQ = new long[capacity];
+    }
+
+    /** 加入一個值；視窗已滿時同時移出最舊的值 */
+    public void add(double x) {
+        int n = size();
+        if (n == capacity)
+            evict(values[(int) (count % capacity)]);
+        values[(int) (count % capacity)] = x;
+
+        addToSum(x);
+        n = n == capacity ? capacity : n + 1;
+        double d = x - mean;
+        mean += d / n;
+        m2 += d * (x - mean);
+
+        long seq = count;
+        long oldest = seq - capacity + 1;
+        // min：移除已離開視窗的隊首，再從隊尾移除所有 >= x 的值
+        if (minSize > 0 && minQ[minHead] < oldest) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (minSize > 0 && value(minQ[(minHead + minSize - 1) % capacity]) >= x)
+            minSize--;
+        minQ[(minHead + minSize) % capacity] = seq;
+        minSize++;
+        // max：同上，方向相反
+        if (maxSize > 0 && maxQ[maxHead] < oldest) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (maxSize > 0 && value(maxQ[(maxHead + maxSize - 1) % capacity]) <= x)
+            maxSize--;
+        maxQ[(maxHead + maxSize) % capacity] = seq;
+        maxSize++;
+
+        count++;
+    }
+
+    /** 移出最舊的值（Welford 反向更新；加入新值前呼叫，此時 size() == capacity） */
+    private void evict(double old) {
+        addToSum(-old);
+        int n = capacity - 1;
+        if (n == 0) {
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double d = old - mean;
+        mean -= d / n;
+        m2 -= d * (old - mean);
+    }
+
+    private void addToSum(double x) {
+        double y = x - sumComp;
+        double t = sum + y;
+        sumComp = (t - sum) - y;
+        sum = t;
+    }
+
+    private double value(long seq) {
+        return values[(int) (seq % capacity)];
+    }
+
+    // ── 查詢 ─────────────────────────────────────────────────────
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** 視窗中目前的值數（未滿時小於 capacity） */
+    public int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    public boolean isFull() {
+        return count >= capacity;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double mean() {
+        return size() == 0 ? Double.NaN : mean;
+    }
+
+    public double min() {
+        return minSize == 0 ? Double.NaN : value(minQ[minHead]);
+    }
+
+    public double max() {
+        return maxSize == 0 ? Double.NaN : value(maxQ[maxHead]);
+    }
+
+    /** 母體變異數（Bollinger 帶使用母體標準差） */
+    public double variance() {
+        int n = size();
+        if (n == 0)
+            return Double.NaN;
+        return Math.max(0, m2 / n); // 浮點誤差可能讓 m2 略小於 0
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+}
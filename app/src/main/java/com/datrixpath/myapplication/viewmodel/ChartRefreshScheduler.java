@@ -0,0 +1,289 @@
+package com.datrixpath.myapplication.viewmodel;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ChartRefreshScheduler — 逐圖表的自動更新排程
+ *
+ * 取代「定時呼叫 fetchAllCharts()」：每張圖表有自己的更新間隔與 ChartLoader，
+ * 只有資料真的改變的圖表才交給 Listener（→ ChartViewModel → 渲染）。
+ *
+ * 排程規則：
+ * - single-flight：同一張圖表上一次載入尚未完成時，新的觸發直接略過（不會堆疊）
+ * - jitter：每次延遲 ±jitter 比例的隨機偏移，避免多張圖表 / 多台裝置同時打 API
+ * - 退避：載入結果未變更（或失敗）時間隔加倍，最多 maxBackoff 倍；一有變更立即恢復
+ * - 背景：LifecycleObserver onStop 後間隔再乘上 backgroundFactor，onStart 時補跑逾期的圖表
+ *
+ * 判斷「未變更」的方式與整個管線相同 —— 以實例比較：
+ * ChartLoader 回傳 current（同一實例）或 null 表示沒有新資料。
+ * 搭配 data.HttpChartSource 時，304 / 內容相同會得到同一個 Dataset，loader 可直接回傳 current。
+ *
+ * Listener 在排程執行緒呼叫；載入期間被 cancel 或重新 schedule 的圖表不會收到該次結果。
+ */
+public final class ChartRefreshScheduler implements DefaultLifecycleObserver {
+
+    public static final double DEFAULT_JITTER = 0.1;
+    public static final int DEFAULT_MAX_BACKOFF = 8;
+    public static final int DEFAULT_BACKGROUND_FACTOR = 4;
+
+    /** 載入一張圖表的最新資料（在排程執行緒呼叫，可阻塞） */
+    public interface ChartLoader {
+        /**
+         * @param current 目前顯示中的 model
+         * @return 新的 model；資料未變更時回傳 current 或 null
+         */
+        ChartUIModel load(ChartUIModel current) throws Exception;
+    }
+
+    public interface Listener {
+        /** 資料已變更的圖表 */
+        void onChartChanged(ChartUIModel model);
+
+        /** 載入失敗（排程繼續，間隔退避） */
+        void onChartError(String chartId, Exception e);
+    }
+
+    private final class Task implements Runnable {
+        final String chartId;
+        final long intervalMillis;
+        final ChartLoader loader;
+        final AtomicBoolean running = new AtomicBoolean(false);
+        volatile ChartUIModel current;
+        volatile int backoff = 1;
+        volatile long lastRunMillis;
+        ScheduledFuture<?> next;
+
+        Task(String chartId, long intervalMillis, ChartUIModel current, ChartLoader loader) {
+            this.chartId = chartId;
+            this.intervalMillis = intervalMillis;
+            this.current = current;
+            this.loader = loader;
+            this.lastRunMillis = System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            if (!running.compareAndSet(false, true))
+                return; // single-flight：上一次載入仍在進行
+            ChartUIModel changed = null;
+            try {
+                ChartUIModel loaded = loader.load(current);
+                if (loaded != null && loaded != current) {
+                    current = loaded;
+                    changed = loaded;
+                }
+                backoff = changed != null ? 1 : Math.min(backoff * 2, maxBackoff);
+            } catch (Exception e) {
+                backoff = Math.min(backoff * 2, maxBackoff);
+                listener.onChartError(chartId, e);
+            } finally {
+                lastRunMillis = System.currentTimeMillis();
+                running.set(false);
+                scheduleNext(this, delayMillis(this));
+            }
+            if (changed != null && tasks.get(chartId) == this)
+                listener.onChartChanged(changed); // 載入期間已取消或被取代時丟棄結果
+        }
+    }
+
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+    private final boolean ownsExecutor;
+    private final double jitter;
+    private final int maxBackoff;
+    private final int backgroundFactor;
+    private final Random random;
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+    private volatile boolean backgrounded = false;
+
+    private ChartRefreshScheduler(Builder builder) {
+        this.listener = builder.listener;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = builder.executor != null ? builder.executor : newDefaultExecutor();
+        this.jitter = builder.jitter;
+        this.maxBackoff = builder.maxBackoff;
+        this.backgroundFactor = builder.backgroundFactor;
+        this.random = builder.random;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 註冊 / 取消
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 每 intervalMillis 以 loader 更新 chartId（第一次在一個間隔後執行）。
+     * 同一 chartId 重複註冊時取代原本的排程。
+     */
+    public void schedule(String chartId, long intervalMillis, ChartUIModel current, ChartLoader loader) {
+        if (intervalMillis <= 0)
+            throw new IllegalArgumentException("intervalMillis must be positive");
+        Task task = new Task(chartId, intervalMillis, current, loader);
+        Task old = tasks.put(chartId, task);
+        if (old != null)
+            cancelNext(old);
+        scheduleNext(task, delayMillis(task));
+    }
+
+    public void cancel(String chartId) {
+        Task task = tasks.remove(chartId);
+        if (task != null)
+            cancelNext(task);
+    }
+
+    /** 立即更新一次（仍受 single-flight 限制），之後依原間隔繼續 */
+    public void refreshNow(String chartId) {
+        Task task = tasks.get(chartId);
+        if (task != null)
+            scheduleNext(task, 0);
+    }
+
+    /** 外部已更新顯示中的 model（例如手動重新載入）時同步，避免下一次比較錯誤 */
+    public void setCurrent(ChartUIModel model) {
+        Task task = tasks.get(model.getId());
+        if (task != null)
+            task.current = model;
+    }
+
+    /** 目前的退避倍數（1 = 未退避） */
+    public int getBackoff(String chartId) {
+        Task task = tasks.get(chartId);
+        return task != null ? task.backoff : 1;
+    }
+
+    public void shutdown() {
+        for (Task task : tasks.values())
+            cancelNext(task);
+        tasks.clear();
+        if (ownsExecutor)
+            executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 生命週期：背景時拉長間隔
+    // ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        setBackgrounded(false);
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        setBackgrounded(true);
+    }
+
+    /** 切換前景 / 背景；所有排程依新的倍數、從上一次執行時間重新計算 */
+    public void setBackgrounded(boolean backgrounded) {
+        if (this.backgrounded == backgrounded)
+            return;
+        this.backgrounded = backgrounded;
+        long now = System.currentTimeMillis();
+        for (Task task : tasks.values()) {
+            long remaining = task.lastRunMillis + delayMillis(task) - now;
+            // 回到前景時已逾期的圖表在一小段隨機延遲內補跑，不會同時觸發
+            long delay = remaining > 0 ? remaining : (long) (random.nextDouble() * task.intervalMillis * jitter);
+            scheduleNext(task, delay);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 排程計算
+    // ─────────────────────────────────────────────────────────────
+
+    /** interval × 退避倍數 ×（背景倍數）× (1 ± jitter) */
+    private long delayMillis(Task task) {
+        double base = (double) task.intervalMillis * task.backoff * (backgrounded ? backgroundFactor : 1);
+        double factor = 1 + jitter * (2 * random.nextDouble() - 1);
+        return Math.max(0, (long) (base * factor));
+    }
+
+    private synchronized void scheduleNext(Task task, long delayMillis) {
+        if (tasks.get(task.chartId) != task || executor.isShutdown())
+            return; // 已取消或被取代
+        cancelNext(task);
+        task.next = executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void cancelNext(Task task) {
+        ScheduledFuture<?> next = task.next;
+        if (next != null)
+            next.cancel(false); // 不中斷進行中的載入
+    }
+
+    private static ScheduledExecutorService newDefaultExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "chart-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    // ── Builder ──────────────────────────────────────────────────
+
+    public static class Builder {
+        private final Listener listener;
+        private ScheduledExecutorService executor = null;
+        private double jitter = DEFAULT_JITTER;
+        private int maxBackoff = DEFAULT_MAX_BACKOFF;
+        private int backgroundFactor = DEFAULT_BACKGROUND_FACTOR;
+        private Random random = new Random();
+
+        public Builder(Listener listener) {
+            this.listener = listener;
+        }
+
+        /** 自訂排程執行緒（預設 2 條 daemon 執行緒，shutdown 時一併關閉） */
+        public Builder executor(ScheduledExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /** 隨機偏移比例，0 = 不偏移，例如 0.1 → ±10% */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /** 未變更時間隔最多放大的倍數 */
+        public Builder maxBackoff(int maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /** 背景時間隔額外放大的倍數 */
+        public Builder backgroundFactor(int backgroundFactor) {
+            this.backgroundFactor = backgroundFactor;
+            return this;
+        }
+
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        public ChartRefreshScheduler build() {
+            if (listener == null)
+                throw new IllegalArgumentException("listener cannot be null");
+            if (jitter < 0 || jitter >= 1)
+                throw new IllegalArgumentException("jitter must be in [0, 1)");
+            if (maxBackoff < 1 || backgroundFactor < 1)
+                throw new IllegalArgumentException("maxBackoff and backgroundFactor must be >= 1");
+            return new ChartRefreshScheduler(this);
+        }
+    }
+}
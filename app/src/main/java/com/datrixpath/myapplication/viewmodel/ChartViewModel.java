@@ -7,7 +7,9 @@ import androidx.lifecycle.ViewModel;
 import com.datrixpath.myapplication.chart.ChartPresetFactory;
 import com.datrixpath.myapplication.model.ChartUIModel;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * ChartViewModel — MVVM 邏輯層（精簡版）
@@ -15,6 +17,7 @@ import java.util.List;
  * 職責：
  * 1. 觸發資料載入，管理 LoadState
  * 2. 透過 LiveData 將圖表清單通知 View
+ * 3. 自動更新（ChartRefreshScheduler）：只替換資料有變更的圖表，未變更的 model 維持同一實例
  *
  * ★ 圖表的建構邏輯全部移至 ChartPresetFactory。
  * 新增圖表請直接編輯 ChartPresetFactory.java。
@@ -36,6 +39,13 @@ public class ChartViewModel extends ViewModel {
     private final MutableLiveData<String> _errorMsg = new MutableLiveData<>();
     public LiveData<String> errorMsg = _errorMsg;
 
+    /** 目前的圖表清單（排程執行緒也會讀寫，以 this 同步） */
+    private List<ChartUIModel> charts = new ArrayList<>();
+
+    /** 自動更新排程；執行緒在第一次 autoRefresh 時才建立 */
+    private final ChartRefreshScheduler refresher =
+            new ChartRefreshScheduler.Builder(new RefreshListener()).build();
+
     // ─────────────────────────────────────────────────────────────
     // 公開方法：觸發資料載入
     // ─────────────────────────────────────────────────────────────
@@ -46,16 +56,98 @@ public class ChartViewModel extends ViewModel {
      * 真實場景：
      * - 將此方法內部改為非同步（RxJava / Coroutine / AsyncTask）
      * - 在 ChartPresetFactory 的各 build 方法中替換 mock 資料為 API 呼叫
+     *   （data.HttpChartSource：磁碟快取 + 304 重新驗證 + 請求合併，回應直接解析成欄式表）
      */
     public void fetchAllCharts() {
+        // ★ 所有圖表建構邏輯集中於 ChartPresetFactory
+        loadCharts(ChartPresetFactory::buildAll);
+    }
+
+    /**
+     * 以指定的來源載入圖表清單（ChartPresetFactory / SyntheticDataGenerator / API）。
+     * LoadState 與錯誤處理與 fetchAllCharts() 相同。
+     */
+    public void loadCharts(Supplier<List<ChartUIModel>> loader) {
         _loadState.setValue(LoadState.LOADING);
         try {
-            // ★ 所有圖表建構邏輯集中於 ChartPresetFactory
-            _chartList.setValue(ChartPresetFactory.buildAll());
+            List<ChartUIModel> loaded = loader.get();
+            synchronized (this) {
+                charts = new ArrayList<>(loaded);
+            }
+            for (ChartUIModel model : loaded)
+                refresher.setCurrent(model);
+            _chartList.setValue(loaded);
             _loadState.setValue(LoadState.SUCCESS);
         } catch (Exception e) {
             _errorMsg.setValue("資料載入失敗：" + e.getMessage());
             _loadState.setValue(LoadState.ERROR);
         }
     }
+
+    // ─────────────────────────────────────────────────────────────
+    // 自動更新
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * 以 intervalMillis 為基準自動更新 chartId（jitter / 退避 / single-flight 見 ChartRefreshScheduler）。
+     * 只有資料變更的圖表會讓 chartList 送出新清單；其餘圖表維持原實例，
+     * ChartWebViewManager.renderCharts 會略過它們。
+     *
+     * 示範用的 MainActivity 只顯示 ChartPresetFactory 的靜態資料，沒有可輪詢的來源，因此不呼叫此方法；
+     * 接上真實資料來源（例如 data.HttpChartSource）時由 View 層註冊，並以 stopAutoRefresh 取消。
+     */
+    public void autoRefresh(String chartId, long intervalMillis, ChartRefreshScheduler.ChartLoader loader) {
+        ChartUIModel current = null;
+        synchronized (this) {
+            for (ChartUIModel model : charts)
+                if (model.getId().equals(chartId))
+                    current = model;
+        }
+        refresher.schedule(chartId, intervalMillis, current, loader);
+    }
+
+    public void stopAutoRefresh(String chartId) {
+        refresher.cancel(chartId);
+    }
+
+    /**
+     * 自動更新排程。View 應將其加入 Lifecycle，背景時拉長更新間隔：
+     * getLifecycle().addObserver(viewModel.getRefresher())
+     */
+    public ChartRefreshScheduler getRefresher() {
+        return refresher;
+    }
+
+    @Override
+    protected void onCleared() {
+        refresher.shutdown();
+    }
+
+    /** 排程執行緒 → 替換單一圖表並以 postValue 通知（連續變更會合併成最新清單） */
+    private final class RefreshListener implements ChartRefreshScheduler.Listener {
+        @Override
+        public void onChartChanged(ChartUIModel model) {
+            List<ChartUIModel> next;
+            synchronized (ChartViewModel.this) {
+                next = new ArrayList<>(charts);
+                boolean replaced = false;
+                for (int i = 0; i < next.size(); i++) {
+                    if (next.get(i).getId().equals(model.getId())) {
+                        next.set(i, model);
+                        replaced = true;
+                        break;
+                    }
+                }
+                if (!replaced)
+                    next.add(model);
+                charts = next;
+            }
+            _chartList.postValue(next);
+        }
+
+        @Override
+        public void onChartError(String chartId, Exception e) {
+            _errorMsg.postValue("圖表更新失敗（" + chartId + "）：" + e.getMessage());
+        }
+    }
 }
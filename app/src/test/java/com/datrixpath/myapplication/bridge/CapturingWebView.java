@@ -0,0 +1,55 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.webkit.ValueCallback;
+import android.webkit.WebView;
+
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 測試用 WebView（Robolectric）：攔截 evaluateJavascript，記錄實際送往頁面的 JS 字串
+ */
+final class CapturingWebView extends WebView {
+
+    final List<String> scripts = new ArrayList<>();
+
+    CapturingWebView() {
+        super(RuntimeEnvironment.getApplication());
+    }
+
+    @Override
+    public void evaluateJavascript(String script, ValueCallback<String> resultCallback) {
+        scripts.add(script);
+    }
+
+    /**
+     * 建立已就緒的 manager：圖表一律內嵌於 renderChart 字串（串流路徑見 ChartDataServerTest），
+     * 並清除頁面就緒時送出的主題註冊，scripts 只剩之後的呼叫。
+     */
+    ChartWebViewManager newReadyManager() {
+        ChartWebViewManager manager = new ChartWebViewManager(this, null);
+        manager.setStreamThreshold(Integer.MAX_VALUE);
+        manager.init();
+        reload();
+        scripts.clear();
+        return manager;
+    }
+
+    /** Robolectric 不會真的載入頁面：手動觸發 onPageFinished（等同頁面重新載入） */
+    void reload() {
+        shadowOf(this).getWebViewClient().onPageFinished(this, ChartDataServer.PAGE_URL);
+    }
+
+    /** 所有已送出的 JS 中 needle 出現的次數 */
+    int count(String needle) {
+        int n = 0;
+        for (String js : scripts)
+            for (int i = js.indexOf(needle); i >= 0; i = js.indexOf(needle, i + 1))
+                n++;
+        return n;
+    }
+}
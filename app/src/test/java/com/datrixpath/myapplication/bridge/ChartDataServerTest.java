@@ -0,0 +1,196 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.net.Uri;
+import android.webkit.WebResourceResponse;
+
+import com.datrixpath.myapplication.chart.ChartPresetRegistry;
+import com.datrixpath.myapplication.chart.SyntheticDataGenerator;
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+import com.datrixpath.myapplication.model.HeatmapGrid;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ChartDataServer 串流格式測試：/data/{chartId}/{version} 的內容必須與 model.getSource() 一致，
+ * /dataset/{datasetId}/{version} 與引用它的圖表共用同一份 row，/tile/... 必須是原始 float32 格點
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ChartDataServerTest {
+
+    private static final String ORIGIN = "https://" + ChartDataServer.HOST;
+
+    @Test
+    public void streamsEveryRowInFieldOrder() throws Exception {
+        ChartUIModel model = syntheticModel("line", 20_000);
+        ChartDataServer server = newServer();
+
+        WebResourceResponse response = server.intercept(Uri.parse(ORIGIN + server.publish(model)));
+        assertNotNull(response);
+        assertEquals(200, response.getStatusCode());
+        assertRowsMatch(model.getSource(), response.getData());
+    }
+
+    @Test
+    public void compressedStreamInflatesToSameRows() throws Exception {
+        ChartUIModel model = syntheticModel("bar", 5_000);
+        ChartDataServer server = newServer();
+        server.setCompress(true);
+
+        WebResourceResponse response = server.intercept(Uri.parse(ORIGIN + server.publish(model) + "?z=1"));
+        assertEquals("deflate", response.getResponseHeaders().get("X-Chart-Encoding"));
+        assertRowsMatch(model.getSource(), new InflaterInputStream(response.getData()));
+    }
+
+    @Test
+    public void staleVersionIsNotServed() {
+        ChartDataServer server = newServer();
+        String oldUrl = server.publish(syntheticModel("bar", 100));
+        String newUrl = server.publish(syntheticModel("bar", 100));
+
+        assertEquals(404, server.intercept(Uri.parse(ORIGIN + oldUrl)).getStatusCode());
+        assertEquals(200, server.intercept(Uri.parse(ORIGIN + newUrl)).getStatusCode());
+        assertNull("其他主機交由 WebView 載入", server.intercept(Uri.parse("https://cdn.jsdelivr.net/npm/echarts")));
+    }
+
+    @Test
+    public void sharedDatasetIsServedIndependentlyOfCharts() throws Exception {
+        Dataset dataset = new Dataset.Builder("shared",
+                SyntheticDataGenerator.generateRows(new SyntheticDataGenerator.Spec.Builder(3_000).build())).build();
+        ChartUIModel chart = new ChartUIModel.Builder("shared", dataset)
+                .encode(new HashMap<>())
+                .build();
+        ChartDataServer server = newServer();
+        String datasetUrl = server.publishDataset(dataset);
+        assertEquals(datasetUrl, server.publishDataset(dataset)); // 同一實例沿用版本
+        server.publish(chart); // 與 datasetId 同名的圖表不影響 /dataset/...
+
+        assertRowsMatch(dataset.getRows(), server.intercept(Uri.parse(ORIGIN + datasetUrl)).getData());
+        server.unpublishDataset("shared");
+        assertEquals(404, server.intercept(Uri.parse(ORIGIN + datasetUrl)).getStatusCode());
+    }
+
+    @Test
+    public void heatmapTilesAreRawFloat32() throws Exception {
+        ChartUIModel model = SyntheticDataGenerator.buildSensorGrid("sensor", 300, 200, 7L);
+        HeatmapGrid grid = model.getHeatmap();
+        ChartDataServer server = newServer();
+        String base = ORIGIN + server.publishTiles(model);
+
+        // level 0：逐格與原始 float[] 相同（含 NaN）
+        WebResourceResponse tile = server.intercept(Uri.parse(base + "/0/1/0"));
+        FloatBuffer floats = readFloats(tile.getData(), grid.tileBytes());
+        int t = grid.getTileSize();
+        for (int y = 0; y < t; y++)
+            for (int x = 0; x < t; x++)
+                assertEquals(grid.get(t + x, y), floats.get(y * t + x), 0f);
+
+        // 最高層級：整張格點一個 tile，其餘 tile 不存在
+        int top = grid.getMaxLevel();
+        assertEquals(200, server.intercept(Uri.parse(base + "/" + top + "/0/0")).getStatusCode());
+        assertEquals(404, server.intercept(Uri.parse(base + "/" + top + "/1/0")).getStatusCode());
+    }
+
+    @Test
+    public void pageIsServedWithTheRegisteredModuleTags() throws Exception {
+        ChartDataServer server = newServer();
+        WebResourceResponse page = server.intercept(Uri.parse(ChartDataServer.PAGE_URL));
+        assertEquals(200, page.getStatusCode());
+        String html = new String(readAll(page.getData()), StandardCharsets.UTF_8);
+        assertTrue(html.contains(ChartPresetRegistry.scriptTags()));
+        assertFalse(html.contains(ChartPresetRegistry.MODULE_PLACEHOLDER));
+
+        // 模組以版本參數載入，可長期快取
+        for (ChartPresetRegistry.Preset preset : ChartPresetRegistry.modules()) {
+            WebResourceResponse module = server.intercept(Uri.parse(ORIGIN + "/assets/" + preset.getModulePath()));
+            assertEquals(preset.getName(), 200, module.getStatusCode());
+            assertTrue(module.getResponseHeaders().get("Cache-Control").contains("immutable"));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+
+    private static byte[] readAll(InputStream data) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        for (int n; (n = data.read(buf)) > 0;)
+            out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    private static FloatBuffer readFloats(InputStream data, int bytes) throws Exception {
+        byte[] buf = new byte[bytes];
+        int off = 0;
+        int n;
+        while (off < bytes && (n = data.read(buf, off, bytes - off)) > 0)
+            off += n;
+        assertEquals(bytes, off);
+        assertEquals(-1, data.read());
+        return ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    private static ChartDataServer newServer() {
+        return new ChartDataServer(RuntimeEnvironment.getApplication().getAssets());
+    }
+
+    private static ChartUIModel syntheticModel(String kind, int rows) {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec.Builder(rows).build();
+        return "line".equals(kind)
+                ? SyntheticDataGenerator.buildTimeLine("stream_" + kind, spec)
+                : SyntheticDataGenerator.buildStackedBar("stream_" + kind, spec);
+    }
+
+    /** 逐行解析 header + block，與原始 row 逐欄比對 */
+    private static void assertRowsMatch(List<Map<String, Object>> expected, InputStream data) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8))) {
+            JSONObject header = new JSONObject(reader.readLine());
+            JSONArray fields = header.getJSONArray("fields");
+            assertEquals(expected.size(), header.getInt("rows"));
+
+            int row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONArray block = new JSONArray(line);
+                for (int i = 0; i < block.length(); i++, row++) {
+                    JSONArray values = block.getJSONArray(i);
+                    Map<String, Object> source = expected.get(row);
+                    for (int f = 0; f < fields.length(); f++) {
+                        Object want = source.get(fields.getString(f));
+                        Object got = values.get(f);
+                        if (want instanceof Number)
+                            assertEquals(((Number) want).doubleValue(), ((Number) got).doubleValue(), 1e-9);
+                        else
+                            assertEquals(String.valueOf(want), String.valueOf(got));
+                    }
+                }
+            }
+            assertEquals(expected.size(), row);
+        }
+    }
+}
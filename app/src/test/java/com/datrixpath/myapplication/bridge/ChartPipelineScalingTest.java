@@ -0,0 +1,306 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.chart.SyntheticDataGenerator;
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.viewmodel.ChartViewModel;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 端對端規模測試（JVM / Robolectric，無需實機）
+ *
+ * 每個資料量級（tier）都跑完整管線：
+ * SyntheticDataGenerator → ChartViewModel.loadCharts() → ChartWebViewManager.renderCharts()
+ * → evaluateJavascript 的 renderChart(...) 字串
+ *
+ * 並記錄 wall time、heap 峰值、配置位元組數與 payload 位元組數，
+ * 輸出至 build/reports/chart-scaling/scaling-report.json。
+ *
+ * 可重現的量（JS 呼叫數、payload 位元組數）嚴格斷言；耗時、配置量與 heap 峰值受 JIT / GC /
+ * 機器負載影響，只以寬鬆的每 row 上限與「最後一個 tier 相對第一個 tier」的成長倍數把關，
+ * 抓的是量級退化（例如 O(N²)、整份資料多複製一次），而不是幾個百分比的波動。
+ *
+ * 可調參數（system property）：
+ * - chartScaling.tiers → 逗號分隔的 row 數，預設 1000,10000,100000
+ * - chartScaling.charts → 每個 tier 的圖表數，預設 2（堆疊長條 + 時間折線）
+ * - chartScaling.reportDir → 報告輸出目錄
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ChartPipelineScalingTest {
+
+    /** 每 row 的 payload 大小在各 tier 間應大致固定（線性成長） */
+    private static final double MAX_BYTES_PER_ROW_DRIFT = 1.25;
+
+    // 最大 tier 的寬鬆上限（每張圖表的每 row）：遠高於實測值，只在量級退化時失敗
+    private static final double MAX_NANOS_PER_ROW = 50_000;
+    private static final double MAX_ALLOCATED_PER_ROW = 64 * 1024;
+    private static final double MAX_HEAP_GROWTH_PER_ROW = 16 * 1024;
+
+    /** 每 row 的耗時 / 配置量 / heap 成長，最後一個 tier 相對第一個 tier 的最大倍數（線性 = 1） */
+    private static final double MAX_PER_ROW_GROWTH = 4.0;
+
+    @Test
+    public void pipelineScalesLinearlyAcrossTiers() throws Exception {
+        int[] tiers = parseTiers(System.getProperty("chartScaling.tiers", "1000,10000,100000"));
+        int charts = Integer.getInteger("chartScaling.charts", 2);
+
+        // 暖機：讓 JIT / 類別載入不計入第一個 tier
+        runTier(500, charts);
+
+        List<TierResult> results = new ArrayList<>();
+        for (int rows : tiers) {
+            results.add(runTier(rows, charts));
+        }
+        writeReport(results, charts);
+
+        for (TierResult r : results) {
+            assertEquals("每張圖表應產生一次 renderChart 呼叫", charts, r.jsCalls);
+            assertTrue("payload 不可為空", r.payloadBytes > 0);
+        }
+
+        TierResult first = results.get(0);
+        TierResult last = results.get(results.size() - 1);
+        assertTrue("payload 每 row 位元組數不應隨資料量成長: "
+                        + first.bytesPerRow() + " → " + last.bytesPerRow(),
+                last.bytesPerRow() <= first.bytesPerRow() * MAX_BYTES_PER_ROW_DRIFT);
+        assertTrue("payload 每 row 位元組數不應隨資料量縮減（row 遺失）: "
+                        + first.bytesPerRow() + " → " + last.bytesPerRow(),
+                last.bytesPerRow() >= first.bytesPerRow() / MAX_BYTES_PER_ROW_DRIFT);
+
+        // 小 tier 由固定成本（WebView 建立、GC 雜訊）主導，每 row 上限只對最大的 tier 斷言
+        assertTrue("每 row 耗時過高: " + last.nanosPerRow() + " ns",
+                last.nanosPerRow() <= MAX_NANOS_PER_ROW);
+        assertTrue("每 row heap 成長過高: " + last.heapGrowthPerRow() + " bytes",
+                last.heapGrowthPerRow() <= MAX_HEAP_GROWTH_PER_ROW);
+        if (last.allocatedBytes >= 0)
+            assertTrue("每 row 配置量過高: " + last.allocatedPerRow() + " bytes",
+                    last.allocatedPerRow() <= MAX_ALLOCATED_PER_ROW);
+        assertLinear("耗時", first.nanosPerRow(), last.nanosPerRow());
+        assertLinear("heap 成長", first.heapGrowthPerRow(), last.heapGrowthPerRow());
+        if (first.allocatedBytes >= 0 && last.allocatedBytes >= 0)
+            assertLinear("配置量", first.allocatedPerRow(), last.allocatedPerRow());
+    }
+
+    /** 每 row 成本在最大 tier 不應比最小 tier 高出 MAX_PER_ROW_GROWTH 倍以上 */
+    private static void assertLinear(String what, double firstPerRow, double lastPerRow) {
+        assertTrue("每 row " + what + "隨資料量成長（非線性）: " + firstPerRow + " → " + lastPerRow,
+                lastPerRow <= Math.max(firstPerRow, 1) * MAX_PER_ROW_GROWTH);
+    }
+
+    @Test
+    public void renderScriptTargetsEveryChart() throws Exception {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec.Builder(200).build();
+        List<ChartUIModel> models = SyntheticDataGenerator.buildDashboard(spec, 3);
+
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        manager.renderCharts(models);
+
+        assertEquals(3, webView.scripts.size());
+        for (int i = 0; i < models.size(); i++) {
+            String js = webView.scripts.get(i);
+            assertTrue(js.startsWith("renderChart('" + models.get(i).getId() + "','"));
+            assertTrue(js.endsWith("');"));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 單一 tier 的量測
+    // ─────────────────────────────────────────────────────────────
+
+    private TierResult runTier(int rows, int charts) {
+        System.gc();
+        long heapBase = usedHeapBytes();
+        resetHeapPeaks();
+        long allocStart = allocatedBytes();
+        long start = System.nanoTime();
+
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec.Builder(rows)
+                .stackGroups(5)
+                .categories(24)
+                .build();
+        List<ChartUIModel> models = SyntheticDataGenerator.buildDashboard(spec, charts);
+        long generated = System.nanoTime();
+
+        ChartViewModel viewModel = new ChartViewModel();
+        viewModel.loadCharts(() -> models);
+        assertEquals(ChartViewModel.LoadState.SUCCESS, viewModel.loadState.getValue());
+        List<ChartUIModel> emitted = viewModel.chartList.getValue();
+        assertNotNull(emitted);
+        long viewModelDone = System.nanoTime();
+
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        manager.renderCharts(emitted);
+        long rendered = System.nanoTime();
+
+        long allocEnd = allocatedBytes();
+
+        TierResult r = new TierResult();
+        r.rows = rows;
+        r.charts = charts;
+        r.generateNanos = generated - start;
+        r.viewModelNanos = viewModelDone - generated;
+        r.renderNanos = rendered - viewModelDone;
+        r.wallNanos = rendered - start;
+        r.peakHeapBytes = peakHeapBytes();
+        r.heapBaseBytes = heapBase;
+        r.allocatedBytes = allocStart >= 0 && allocEnd >= 0 ? allocEnd - allocStart : -1;
+        for (String js : webView.scripts)
+            r.payloadBytes += utf8Length(js);
+        r.jsCalls = webView.scripts.size();
+        return r;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // JVM 量測工具
+    // ─────────────────────────────────────────────────────────────
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    private static long usedHeapBytes() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long peakHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                total += pool.getPeakUsage().getUsed();
+        }
+        return total;
+    }
+
+    /** 目前執行緒累計配置的位元組數；JVM 不支援時回傳 -1 */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /** 不建立 byte[] 的 UTF-8 長度計算 */
+    private static long utf8Length(String s) {
+        long len = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                len += 1;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                len += 4;
+                i++;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // 報告輸出
+    // ─────────────────────────────────────────────────────────────
+
+    private static void writeReport(List<TierResult> results, int charts) throws Exception {
+        JSONArray tiers = new JSONArray();
+        for (TierResult r : results) {
+            JSONObject t = new JSONObject();
+            t.put("rows", r.rows);
+            t.put("charts", r.charts);
+            t.put("wallMs", r.wallNanos / 1e6);
+            t.put("generateMs", r.generateNanos / 1e6);
+            t.put("viewModelMs", r.viewModelNanos / 1e6);
+            t.put("renderMs", r.renderNanos / 1e6);
+            t.put("peakHeapBytes", r.peakHeapBytes);
+            t.put("heapGrowthPerRow", r.heapGrowthPerRow());
+            t.put("allocatedBytes", r.allocatedBytes);
+            t.put("payloadBytes", r.payloadBytes);
+            t.put("bytesPerRow", r.bytesPerRow());
+            t.put("nanosPerRow", r.nanosPerRow());
+            t.put("allocatedPerRow", r.allocatedPerRow());
+            tiers.put(t);
+        }
+        JSONObject report = new JSONObject();
+        report.put("suite", "chart-pipeline-scaling");
+        report.put("chartsPerTier", charts);
+        report.put("tiers", tiers);
+
+        File dir = new File(System.getProperty("chartScaling.reportDir", "build/reports/chart-scaling"));
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IllegalStateException("cannot create " + dir);
+        try (Writer w = new OutputStreamWriter(
+                new FileOutputStream(new File(dir, "scaling-report.json")), StandardCharsets.UTF_8)) {
+            w.write(report.toString(2));
+        }
+    }
+
+    private static int[] parseTiers(String csv) {
+        String[] parts = csv.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            out[i] = Integer.parseInt(parts[i].trim());
+        return out;
+    }
+
+    private static final class TierResult {
+        int rows;
+        int charts;
+        long generateNanos;
+        long viewModelNanos;
+        long renderNanos;
+        long wallNanos;
+        long peakHeapBytes;
+        long heapBaseBytes;
+        long allocatedBytes;
+        long payloadBytes;
+        int jsCalls;
+
+        double bytesPerRow() {
+            return (double) payloadBytes / ((long) rows * charts);
+        }
+
+        double nanosPerRow() {
+            return (double) wallNanos / ((long) rows * charts);
+        }
+
+        double allocatedPerRow() {
+            return (double) allocatedBytes / ((long) rows * charts);
+        }
+
+        /** tier 開始前（GC 後）到峰值的 heap 成長 */
+        double heapGrowthPerRow() {
+            return (double) Math.max(0, peakHeapBytes - heapBaseBytes) / ((long) rows * charts);
+        }
+    }
+}
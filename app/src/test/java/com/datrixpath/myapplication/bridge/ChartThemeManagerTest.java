@@ -0,0 +1,74 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.content.res.Configuration;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ChartThemeManager 測試：token 只由 Java 提供，覆寫在切換主題與頁面重新載入後保留
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ChartThemeManagerTest {
+
+    @Test
+    public void pageHasNoTokensOfItsOwn() throws Exception {
+        String page = new String(Files.readAllBytes(new File("src/main/assets/echarts_factory.html").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue("globalTheme 初始為空，等待 registerChartThemes", page.contains("let globalTheme={};"));
+        assertFalse("調色盤只定義在 ChartThemeManager", page.contains("#6366f1"));
+    }
+
+    @Test
+    public void overridesSurviveThemeSwitchAndReload() throws Exception {
+        CapturingWebView webView = new CapturingWebView();
+        ChartThemeManager themes = new ChartThemeManager(webView, night(true));
+
+        themes.onPageReady();
+        assertEquals(1, webView.scripts.size());
+        String first = webView.scripts.get(0);
+        assertTrue(first.startsWith("registerChartThemes('"));
+        assertTrue(first.contains("#6366f1"));
+        assertFalse("尚無覆寫", first.contains("setGlobalTheme"));
+        assertTrue(first.endsWith("applyChartTheme('dark');"));
+
+        themes.setOverrides(new JSONObject().put("palette", new JSONArray().put("#ff0000")));
+        themes.setOverrides(new JSONObject().put("textColor", "#ffffff"));
+        assertEquals(3, webView.scripts.size());
+        assertTrue(webView.scripts.get(2).startsWith("setGlobalTheme('"));
+
+        // 切換主題只送主題名稱；頁面保留覆寫
+        themes.onConfigurationChanged(night(false));
+        assertEquals("applyChartTheme('light');", webView.scripts.get(3));
+
+        // 頁面重新載入：主題、累積的覆寫、目前主題依序重送
+        themes.onPageReady();
+        String reload = webView.scripts.get(4);
+        int register = reload.indexOf("registerChartThemes(");
+        int override = reload.indexOf("setGlobalTheme(");
+        int apply = reload.indexOf("applyChartTheme('light');");
+        assertTrue(register >= 0 && register < override && override < apply);
+        assertTrue(reload.contains("#ff0000"));
+        assertTrue(reload.contains("#ffffff"));
+    }
+
+    private static Configuration night(boolean on) {
+        Configuration c = new Configuration();
+        c.uiMode = (c.uiMode & ~Configuration.UI_MODE_NIGHT_MASK)
+                | (on ? Configuration.UI_MODE_NIGHT_YES : Configuration.UI_MODE_NIGHT_NO);
+        return c;
+    }
+}
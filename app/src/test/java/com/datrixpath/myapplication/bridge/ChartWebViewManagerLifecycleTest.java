@@ -0,0 +1,70 @@
+package com.datrixpath.myapplication.bridge;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.datrixpath.myapplication.chart.SyntheticDataGenerator;
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ChartWebViewManager 生命週期測試：背景期間不送 JS，回到前景時只送出合併後的最新狀態
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ChartWebViewManagerLifecycleTest {
+
+    private final LifecycleOwner owner = () -> null; // onStop / onStart 不使用 owner
+
+    @Test
+    public void pausedManagerFlushesLatestStateOnce() {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec.Builder(200).build();
+        List<ChartUIModel> first = SyntheticDataGenerator.buildDashboard(spec, 3);
+        List<ChartUIModel> latest = SyntheticDataGenerator.buildDashboard(spec, 3);
+
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        manager.onStop(owner);
+        manager.renderCharts(first);
+        manager.renderCharts(latest);
+        manager.removeChart(latest.get(1).getId());
+        assertEquals("背景期間不應送出任何 JS", 0, webView.scripts.size());
+
+        manager.onStart(owner);
+        assertEquals("回到前景只送出一批", 1, webView.scripts.size());
+        String js = webView.scripts.get(0);
+        assertEquals(2, js.split("renderChart\\(").length - 1);
+        assertTrue(js.contains("removeChart('" + latest.get(1).getId() + "')"));
+        assertFalse(js.contains("renderChart('" + latest.get(1).getId() + "'"));
+    }
+
+    @Test
+    public void themeSwitchWhilePausedIsSentWithTheFlush() {
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        String initial = manager.getThemeManager().getCurrentTheme();
+        String other = "dark".equals(initial) ? "light" : "dark";
+
+        manager.onStop(owner);
+        manager.getThemeManager().setTheme(other);
+        manager.getThemeManager().setTheme(initial);
+        manager.getThemeManager().setTheme(other);
+        assertEquals(0, webView.scripts.size());
+
+        manager.onStart(owner);
+        assertEquals(1, webView.scripts.size());
+        String js = webView.scripts.get(0);
+        assertEquals("多次切換只送出最後結果", 1, js.split("applyChartTheme\\(").length - 1);
+        assertTrue(js.contains("applyChartTheme('" + other + "')"));
+        assertFalse(manager.isPaused());
+    }
+}
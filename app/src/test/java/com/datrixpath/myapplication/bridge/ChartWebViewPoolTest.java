@@ -0,0 +1,88 @@
+package com.datrixpath.myapplication.bridge;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import com.datrixpath.myapplication.R;
+import com.datrixpath.myapplication.dashboard.ChartCardAdapter;
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * ChartWebViewPool / ChartCardAdapter 測試：歸還的 WebView 會被重用，閒置數有上限，
+ * ViewHolder 回收時 WebView 回到池子
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ChartWebViewPoolTest {
+
+    private final Context context = RuntimeEnvironment.getApplication();
+
+    @Test
+    public void releasedSlotsAreReusedAndIdleIsCapped() {
+        ChartWebViewPool pool = new ChartWebViewPool(context, 1, 2, new ChartPayloadCache(1024));
+        pool.prewarm();
+        assertEquals(1, pool.size());
+
+        ChartWebViewPool.Slot a = pool.acquire();
+        ChartWebViewPool.Slot b = pool.acquire();
+        ChartWebViewPool.Slot c = pool.acquire();
+        assertEquals("池子空了才新建", 3, pool.size());
+        assertEquals(0, pool.idleCount());
+
+        pool.release(a);
+        pool.release(b);
+        pool.release(c); // 超過 maxIdle → destroy
+        pool.release(c); // 重複歸還無作用
+        assertEquals(2, pool.size());
+        assertEquals(2, pool.idleCount());
+
+        assertSame("後進先出，重用最近歸還的 WebView", b, pool.acquire());
+        assertSame(a, pool.acquire());
+        assertEquals(2, pool.size());
+        pool.destroy();
+    }
+
+    @Test
+    public void recycledViewHolderReturnsItsWebView() {
+        ChartWebViewPool pool = new ChartWebViewPool(context, 1, new ChartPayloadCache(1024));
+        pool.prewarm();
+        ChartCardAdapter adapter = new ChartCardAdapter(pool);
+        adapter.submitList(Collections.singletonList(new ChartUIModel.Builder(
+                "c", Collections.<Map<String, Object>>emptyList())
+                .type("bar")
+                .encode(Collections.<String, String>emptyMap())
+                .build()));
+        FrameLayout parent = new FrameLayout(context);
+
+        for (int round = 0; round < 50; round++) {
+            ChartCardAdapter.CardHolder holder = adapter.onCreateViewHolder(parent, 0);
+            adapter.onBindViewHolder(holder, 0);
+            assertEquals(0, pool.idleCount());
+            FrameLayout host = holder.itemView.findViewById(R.id.chartCardWebHost);
+            assertEquals(1, host.getChildCount());
+
+            if (round % 2 == 0)
+                adapter.onViewRecycled(holder);
+            else
+                adapter.onFailedToRecycleView(holder);
+            assertEquals(0, host.getChildCount());
+            assertNull(holder.getSlot());
+        }
+        assertEquals("ViewHolder 不斷重建，WebView 數量不變", 1, pool.size());
+        assertEquals(1, pool.idleCount());
+        pool.destroy();
+    }
+}
@@ -0,0 +1,111 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.Dataset;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DatasetRegistry 測試：共用 Dataset 只送一次，最後一個引用解除才釋放，頁面重新載入後重送
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class DatasetRegistryTest {
+
+    @Test
+    public void referencesAreCountedPerChart() {
+        DatasetRegistry registry = new DatasetRegistry();
+        Dataset v1 = dataset("sales");
+        Dataset v2 = dataset("sales"); // 同 id 的新版本
+
+        assertNull(registry.bind("a", v1));
+        assertNull(registry.bind("b", v1));
+        assertNull("同一張圖表重新綁定同一份資料不改變引用數", registry.bind("a", v1));
+        assertTrue(registry.needsSend(v1));
+        registry.markSent(v1);
+        assertFalse(registry.needsSend(v1));
+        assertTrue("新版本需要重送", registry.needsSend(v2));
+
+        assertNull(registry.unbind("a"));
+        assertNull("尚未綁定的圖表", registry.unbind("zzz"));
+        assertEquals("sales", registry.unbind("b"));
+        assertTrue("釋放後頁面上已無資料", registry.needsSend(v1));
+
+        // 頁面重新載入（onPageFinished → clear）：所有資料都需重送
+        registry.bind("a", v1);
+        registry.markSent(v1);
+        registry.clear();
+        assertTrue(registry.needsSend(v1));
+        assertNull("clear 後不再有引用可釋放", registry.unbind("a"));
+    }
+
+    @Test
+    public void sharedDatasetIsSentOnceAndReleasedAfterLastChart() {
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        Dataset shared = dataset("sales");
+        manager.renderCharts(Arrays.asList(chart("a", shared), chart("b", shared), chart("c", shared)));
+
+        assertEquals(1, webView.count("registerDataset('sales'"));
+        assertEquals(3, webView.count("renderChartRef("));
+
+        manager.removeChart("a");
+        manager.removeChart("b");
+        assertEquals("仍有圖表引用時不釋放", 0, webView.count("releaseDataset("));
+        manager.removeChart("c");
+        assertEquals(1, webView.count("releaseDataset('sales')"));
+    }
+
+    @Test
+    public void pageReloadRegistersTheDatasetAgain() {
+        CapturingWebView webView = new CapturingWebView();
+        ChartWebViewManager manager = webView.newReadyManager();
+        Dataset shared = dataset("sales");
+        List<ChartUIModel> charts = Arrays.asList(chart("a", shared), chart("b", shared));
+        manager.renderCharts(charts);
+        assertEquals(1, webView.count("registerDataset('sales'"));
+
+        // 頁面重新載入：頁面上的資料已消失，同樣的 model 必須重新送出 Dataset
+        webView.reload();
+        manager.renderCharts(charts);
+        assertEquals(2, webView.count("registerDataset('sales'"));
+        assertEquals("重新載入不產生多餘的 release", 0, webView.count("releaseDataset("));
+    }
+
+    // ─────────────────────────────────────────────────────────────
+
+    private static Dataset dataset(String id) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("month", "M" + i);
+            row.put("revenue", i * 10);
+            rows.add(row);
+        }
+        return new Dataset.Builder(id, rows).build();
+    }
+
+    private static ChartUIModel chart(String id, Dataset dataset) {
+        Map<String, String> encode = new HashMap<>();
+        encode.put("x", "month");
+        encode.put("y", "revenue");
+        return new ChartUIModel.Builder(id, dataset)
+                .type("bar")
+                .encode(encode)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.datrixpath.myapplication.bridge;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * RenderProfile 測試：各門檻的前一個與當下的值分別落在不同 profile，
+ * 項目型圖表由 ChartPresetRegistry 判斷，pivot 估算依 model 快取，即時序列依目前點數重新分類
+ */
+public class RenderProfileTest {
+
+    @Test
+    public void pointThresholds() {
+        assertEquals(RenderProfile.NORMAL, RenderProfile.classify(line(RenderProfile.LARGE_POINTS - 1)));
+        assertEquals(RenderProfile.LARGE, RenderProfile.classify(line(RenderProfile.LARGE_POINTS)));
+        assertEquals(RenderProfile.LARGE, RenderProfile.classify(line(RenderProfile.HUGE_POINTS - 1)));
+        assertEquals(RenderProfile.HUGE, RenderProfile.classify(line(RenderProfile.HUGE_POINTS)));
+    }
+
+    @Test
+    public void seriesThresholdCountsStackGroups() {
+        // 1 個 x 類別 × N 個堆疊群組：點數 = 系列數 = N，遠低於點數門檻
+        assertEquals(RenderProfile.NORMAL, RenderProfile.classify(stacked(1, RenderProfile.LARGE_SERIES - 1)));
+        assertEquals(RenderProfile.LARGE, RenderProfile.classify(stacked(1, RenderProfile.LARGE_SERIES)));
+
+        // 堆疊後的點數 = x 類別數 × 群組數
+        assertEquals(RenderProfile.NORMAL, RenderProfile.classify(stacked(1_999, 1)));
+        assertEquals(RenderProfile.LARGE, RenderProfile.classify(stacked(1_000, 2)));
+    }
+
+    @Test
+    public void itemChartsStayNormal() throws Exception {
+        for (String type : new String[] { "pie", "gauge-ring" }) {
+            ChartUIModel item = new ChartUIModel.Builder(type, rows(RenderProfile.HUGE_POINTS, 1))
+                    .type(type)
+                    .encode(encode("itemName", "x", "value", "y"))
+                    .build();
+            assertEquals(type, RenderProfile.NORMAL, RenderProfile.classify(item));
+        }
+        assertFalse("一律 Canvas，不再送出 renderer", RenderProfile.HUGE.toJson().has("renderer"));
+    }
+
+    @Test
+    public void pivotEstimateIsCachedPerModel() {
+        ChartUIModel model = stacked(100, 3);
+        long[] shape = RenderProfile.estimateShape(model);
+        assertEquals(300, shape[0]);
+        assertSame(shape, RenderProfile.estimateShape(model));
+    }
+
+    @Test
+    public void liveChartsAreReclassifiedByCurrentPoints() {
+        ChartUIModel live = new ChartUIModel.Builder("live", rows(10, 1))
+                .type("line")
+                .encode(encode("x", "x", "y", "y"))
+                .live(RenderProfile.HUGE_POINTS)
+                .build();
+        assertEquals(RenderProfile.NORMAL, RenderProfile.classify(live));
+        assertEquals(RenderProfile.LARGE, RenderProfile.classifyLive(live, RenderProfile.LARGE_POINTS));
+        assertEquals(RenderProfile.HUGE, RenderProfile.classifyLive(live, RenderProfile.HUGE_POINTS));
+    }
+
+    private static ChartUIModel line(int points) {
+        return new ChartUIModel.Builder("line", rows(points, 1))
+                .type("line")
+                .encode(encode("x", "x", "y", "y"))
+                .build();
+    }
+
+    private static ChartUIModel stacked(int xs, int groups) {
+        return new ChartUIModel.Builder("stacked", rows(xs, groups))
+                .type("bar")
+                .encode(encode("x", "x", "y", "y"))
+                .stackField("g")
+                .build();
+    }
+
+    /** xs × groups 個 row：x = "x{i}"、g = "g{j}"、y = 1 */
+    private static List<Map<String, Object>> rows(int xs, int groups) {
+        List<Map<String, Object>> rows = new ArrayList<>(xs * groups);
+        for (int i = 0; i < xs; i++) {
+            for (int j = 0; j < groups; j++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("x", "x" + i);
+                row.put("g", "g" + j);
+                row.put("y", 1);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Map<String, String> encode(String... kv) {
+        Map<String, String> m = new HashMap<>();
+        for (int i = 0; i < kv.length; i += 2)
+            m.put(kv[i], kv[i + 1]);
+        return m;
+    }
+}
@@ -0,0 +1,133 @@
+package com.datrixpath.myapplication.chart;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ChartPresetRegistry 測試：type 在序列化前驗證，頁面只載入登記的模組，
+ * 序列化前只保留 preset 讀取的欄位
+ */
+public class ChartPresetRegistryTest {
+
+    private static final File ASSETS = new File("src/main/assets");
+    private static final Pattern PRESET_SCRIPT = Pattern.compile("<script\\s+src=\"([^\"]+)\"\\s+data-preset");
+    private static final Pattern REGISTER_CALL = Pattern.compile("PresetRegistry\\.register\\(\\s*[\"']([^\"']+)[\"']");
+
+    @Test
+    public void unknownTypesAndMissingFieldsAreRejected() {
+        expectRejected(new ChartUIModel.Builder("a", new ArrayList<Map<String, Object>>())
+                .type("bar-normalised")
+                .encode(encode("x", "month", "y", "revenue")));
+        expectRejected(new ChartUIModel.Builder("b", new ArrayList<Map<String, Object>>())
+                .type("bar-normalized")
+                .encode(encode("x", "month", "y", "revenue")));
+        expectRejected(new ChartUIModel.Builder("c", new ArrayList<Map<String, Object>>())
+                .type("bar-normalized")
+                .encode(encode("x", "month"))
+                .stackField("channel"));
+
+        // 內建圖表全部通過驗證
+        for (ChartUIModel model : ChartPresetFactory.buildAll()) {
+            assertTrue(model.getType(), ChartPresetRegistry.isKnown(model.getType()));
+            ChartPresetRegistry.validate(model);
+        }
+    }
+
+    @Test
+    public void pageLoadsExactlyTheRegisteredModules() throws Exception {
+        String page = read(new File(ASSETS, "echarts_factory.html"));
+        assertFalse("頁面不再 eval preset 字串", page.contains("registerChartPreset"));
+        assertEquals("模組標籤只由 registry 產生", 0, find(PRESET_SCRIPT, page).size());
+        assertEquals(1, page.split(Pattern.quote(ChartPresetRegistry.MODULE_PLACEHOLDER), -1).length - 1);
+
+        List<String> expected = new ArrayList<>();
+        for (ChartPresetRegistry.Preset preset : ChartPresetRegistry.modules())
+            expected.add(preset.getModulePath());
+        assertEquals(expected, find(PRESET_SCRIPT, ChartPresetRegistry.injectModules(page)));
+    }
+
+    @Test
+    public void everyModuleRegistersItsOwnName() throws Exception {
+        for (ChartPresetRegistry.Preset preset : ChartPresetRegistry.modules()) {
+            File file = new File(ASSETS, ChartPresetRegistry.MODULE_DIR + preset.getName() + ".js");
+            assertTrue(file.getPath(), file.isFile());
+            List<String> registered = find(REGISTER_CALL, read(file));
+            assertEquals(file.getPath(), Collections.singletonList(preset.getName()), registered);
+        }
+    }
+
+    @Test
+    public void sourceIsProjectedToFieldsThePresetReads() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("label", "k" + i);
+            row.put("pct", i * 10);
+            row.put("note", "unused");
+            rows.add(row);
+        }
+        ChartUIModel gauge = new ChartUIModel.Builder("g", rows)
+                .type("gauge-ring")
+                .encode(encode("itemName", "label", "value", "pct"))
+                .build();
+        List<Map<String, Object>> shaped = ChartPresetRegistry.shape(gauge);
+        assertEquals(3, shaped.size());
+        assertEquals(2, shaped.get(0).size());
+        assertEquals("k1", shaped.get(1).get("label"));
+        assertFalse(shaped.get(0).containsKey("note"));
+
+        // ROWS 形狀不裁剪，沿用同一份 source
+        ChartUIModel bar = new ChartUIModel.Builder("b", rows)
+                .type("bar")
+                .encode(encode("x", "label", "y", "pct"))
+                .build();
+        assertSame(bar.getSource(), ChartPresetRegistry.shape(bar));
+    }
+
+    /** model 本身可以建立（model 不依賴 chart 套件），由 registry 拒絕 */
+    private static void expectRejected(ChartUIModel.Builder builder) {
+        ChartUIModel model = builder.build();
+        try {
+            ChartPresetRegistry.validate(model);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+
+    private static Map<String, String> encode(String... kv) {
+        Map<String, String> m = new HashMap<>();
+        for (int i = 0; i < kv.length; i += 2)
+            m.put(kv[i], kv[i + 1]);
+        return m;
+    }
+
+    private static List<String> find(Pattern pattern, String text) {
+        List<String> out = new ArrayList<>();
+        for (Matcher m = pattern.matcher(text); m.find();)
+            out.add(m.group(1));
+        return out;
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
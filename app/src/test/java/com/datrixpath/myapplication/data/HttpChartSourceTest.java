@@ -0,0 +1,197 @@
+package com.datrixpath.myapplication.data;
+
+import com.datrixpath.myapplication.filter.ColumnTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * HttpChartSource 測試：以 JDK 內建 HttpServer 模擬 API，
+ * 驗證 ETag 304、內容雜湊、請求合併、依請求標頭區分的磁碟快取與 JSON → ColumnTable 解析
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class HttpChartSourceTest {
+
+    private static final String BODY = "{\"meta\":{\"v\":1},\"data\":{\"items\":["
+            + "{\"date\":\"Jan\",\"channel\":\"Online\",\"revenue\":5000,\"tags\":[1,2]},"
+            + "{\"date\":\"Feb\",\"channel\":\"App\",\"revenue\":1800.5,\"note\":null},"
+            + "{\"date\":\"Mar\",\"channel\":\"Online\",\"active\":true}"
+            + "]}}";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile String etag = "\"v1\"";
+    private volatile String body = BODY;
+    private volatile CountDownLatch gate = null;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/revenue", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void parsesNestedRowsIntoColumns() throws Exception {
+        ColumnTable table = newSource().load(url(), "data.items").getTable();
+
+        assertEquals(3, table.getRowCount());
+        assertEquals("巢狀陣列與 null 不建立欄位", 4, table.getFields().size());
+        assertArrayEquals(new double[] { 5000, 1800.5, 0 }, table.numbers("revenue"), 0);
+        assertEquals("Online", table.asRows().get(2).get("channel"));
+        assertEquals(0, table.codeOf("channel", "Online"));
+        assertEquals("true", table.value("active", 2));
+    }
+
+    @Test
+    public void notModifiedReusesSameDatasetWithoutParsing() throws Exception {
+        HttpChartSource source = newSource();
+        HttpChartSource.Response first = source.load(url(), "data.items");
+        HttpChartSource.Response second = source.load(url(), "data.items");
+
+        assertTrue(first.isChanged());
+        assertFalse(second.isChanged());
+        assertFalse(second.isFromNetwork());
+        assertEquals(1, notModified.get());
+        assertSame(first.getDataset("revenue"), second.getDataset("revenue"));
+
+        // 新程序（新的 source、同一個快取目錄）：304 時由磁碟內容解析
+        HttpChartSource.Response cold = newSource().load(url(), "data.items");
+        assertEquals(2, notModified.get());
+        assertTrue(cold.isChanged());
+        assertEquals(3, cold.getTable().getRowCount());
+
+        // 內容改變 → 200 → 新的 Dataset
+        etag = "\"v2\"";
+        body = BODY.replace("5000", "5100");
+        HttpChartSource.Response third = source.load(url(), "data.items");
+        assertTrue(third.isChanged());
+        assertEquals(5100, third.getTable().numbers("revenue")[0], 0);
+    }
+
+    @Test
+    public void identicalBodyWithoutValidatorsIsUnchanged() throws Exception {
+        etag = null;
+        HttpChartSource source = newSource();
+        HttpChartSource.Response first = source.load(url(), "data.items");
+        HttpChartSource.Response second = source.load(url(), "data.items");
+
+        assertTrue(second.isFromNetwork());
+        assertFalse(second.isChanged());
+        assertSame(first.getTable(), second.getTable());
+    }
+
+    @Test
+    public void requestHeadersAreScopedInTheDiskCache() throws Exception {
+        File cacheDir = new File(tmp.getRoot(), "http-cache");
+        HttpChartSource alice = new HttpChartSource.Builder(cacheDir).header("Authorization", "Bearer a").build();
+        HttpChartSource bob = new HttpChartSource.Builder(cacheDir).header("Authorization", "Bearer b").build();
+        alice.load(url(), "data.items");
+
+        // 另一個身分沒有自己的快取項目：不送 If-None-Match，完整下載
+        HttpChartSource.Response other = bob.load(url(), "data.items");
+        assertTrue(other.isFromNetwork());
+        assertEquals(0, notModified.get());
+
+        // 相同標頭（名稱大小寫不同）的新程序沿用同一個項目
+        HttpChartSource.Response again = new HttpChartSource.Builder(cacheDir)
+                .header("authorization", "Bearer a").build()
+                .load(url(), "data.items");
+        assertFalse(again.isFromNetwork());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void concurrentLoadsShareOneRequest() throws Exception {
+        HttpChartSource source = newSource();
+        gate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<HttpChartSource.Response>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            futures.add(pool.submit(() -> source.load(url(), "data.items")));
+
+        Thread.sleep(200); // 讓所有呼叫端都進入等待
+        gate.countDown();
+        ColumnTable table = futures.get(0).get(5, TimeUnit.SECONDS).getTable();
+        for (Future<HttpChartSource.Response> f : futures)
+            assertSame(table, f.get(5, TimeUnit.SECONDS).getTable());
+        assertEquals(1, requests.get());
+        pool.shutdown();
+    }
+
+    // ─────────────────────────────────────────────────────────────
+
+    private HttpChartSource newSource() {
+        return new HttpChartSource.Builder(new File(tmp.getRoot(), "http-cache")).build();
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/revenue";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        CountDownLatch g = gate;
+        if (g != null) {
+            try {
+                g.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String tag = etag;
+        if (tag != null && tag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (tag != null)
+            exchange.getResponseHeaders().set("ETag", tag);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
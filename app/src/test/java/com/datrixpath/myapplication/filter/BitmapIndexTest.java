@@ -0,0 +1,92 @@
+package com.datrixpath.myapplication.filter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BitmapIndex 測試：稠密（BitSet）與稀疏（int[]）兩種表示法的聯集 / 交集與逐 row 掃描一致
+ */
+public class BitmapIndexTest {
+
+    private static final int N = 50_000;
+
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private final BitmapIndex index;
+    private final ColumnTable table;
+
+    public BitmapIndexTest() {
+        Random random = new Random(17);
+        for (int i = 0; i < N; i++) {
+            Map<String, Object> row = new HashMap<>();
+            // channel：3 個稠密值 + 大量只出現數次的稀疏值
+            row.put("channel", random.nextInt(10) < 9 ? "c" + random.nextInt(3) : "rare" + random.nextInt(2_000));
+            // region：稠密 / 稀疏各半
+            row.put("region", random.nextBoolean() ? "north" : "r" + random.nextInt(500));
+            row.put("value", random.nextInt(100));
+            rows.add(row);
+        }
+        table = ColumnTable.fromRows(rows);
+        index = new BitmapIndex(table);
+    }
+
+    @Test
+    public void unionMatchesLinearScanForDenseAndSparseValues() {
+        Random random = new Random(3);
+        List<String> dict = table.dictionary("channel");
+        for (int q = 0; q < 100; q++) {
+            List<Integer> codes = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            for (int k = 0; k <= q % 4; k++) {
+                int code = random.nextInt(dict.size());
+                codes.add(code);
+                values.add(dict.get(code));
+            }
+            BitSet expected = new BitSet(N);
+            for (int i = 0; i < N; i++)
+                if (values.contains(rows.get(i).get("channel")))
+                    expected.set(i);
+            assertEquals(expected, index.union("channel", codes));
+        }
+
+        // 兩種表示法都涵蓋到
+        assertTrue(index.union("channel", Collections.singletonList(table.codeOf("channel", "c0"))).cardinality()
+                >= N / 32);
+        assertTrue(index.union("channel", Collections.singletonList(dict.size() - 1)).cardinality() < N / 32);
+    }
+
+    @Test
+    public void intersectionAcrossFieldsMatchesLinearScan() {
+        BitSet channel = index.union("channel", Arrays.asList(
+                table.codeOf("channel", "c1"), table.codeOf("channel", "rare7")));
+        BitSet region = index.union("region", Arrays.asList(
+                table.codeOf("region", "north"), table.codeOf("region", "r42")));
+        BitSet and = (BitSet) channel.clone();
+        and.and(region);
+
+        int expected = 0;
+        for (Map<String, Object> row : rows) {
+            Object c = row.get("channel"), r = row.get("region");
+            if (("c1".equals(c) || "rare7".equals(c)) && ("north".equals(r) || "r42".equals(r)))
+                expected++;
+        }
+        assertEquals(expected, and.cardinality());
+    }
+
+    @Test
+    public void unknownFieldsAndCodesYieldEmptySets() {
+        assertTrue(index.union("value", Collections.singletonList(0)).isEmpty()); // 數值欄位沒有索引
+        assertTrue(index.union("missing", Collections.singletonList(0)).isEmpty());
+        assertTrue(index.union("channel", Arrays.asList(-1, Integer.MAX_VALUE)).isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package com.datrixpath.myapplication.filter;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CrossFilterEngine 測試：選取 / 取消選取、未篩選聚合快取、合併點選、
+ * 資料更新後重新註冊與過期結果、unlink 釋放來源
+ */
+public class CrossFilterEngineTest {
+
+    private static final String SOURCE = "sales";
+
+    @Test
+    public void selectFiltersOtherChartsAndDeselectKeepsTheSameShape() {
+        List<Map<String, Object>> rows = sales(1);
+        CrossFilterEngine engine = new CrossFilterEngine();
+        engine.link(chart("byChannel", rows, "channel"));
+        engine.link(chart("byMonth", rows, "month"));
+
+        List<CrossFilterEngine.Update> selected = engine.select("byChannel", "channel", "Online");
+        assertEquals(1, selected.size());
+        assertEquals("byMonth", selected.get(0).chartId);
+        Map<String, Double> filtered = totals(selected.get(0).rows, "month");
+        assertEquals(10.0, filtered.get("Jan"), 0); // Online：Jan 10 + Feb 20
+        assertEquals(20.0, filtered.get("Feb"), 0);
+
+        // 同值再點一次 = 取消；仍是每月一列的聚合，而非原始 row
+        List<CrossFilterEngine.Update> cleared = engine.select("byChannel", "channel", "Online");
+        assertEquals(1, cleared.size());
+        List<Map<String, Object>> all = cleared.get(0).rows;
+        assertEquals(2, all.size());
+        Map<String, Double> totals = totals(all, "month");
+        assertEquals(10.0 + 1 + 100, totals.get("Jan"), 0);
+        assertEquals(20.0 + 2 + 200, totals.get("Feb"), 0);
+
+        assertTrue("未知的值不觸發更新", engine.select("byChannel", "channel", "Fax").isEmpty());
+    }
+
+    @Test
+    public void unfilteredAggregatesArePreparedOnceAndReused() {
+        List<Map<String, Object>> rows = sales(1);
+        CrossFilterEngine engine = new CrossFilterEngine();
+        engine.link(chart("byChannel", rows, "channel"));
+        engine.link(chart("byMonth", rows, "month"));
+        engine.prepare("byMonth");
+
+        engine.select("byChannel", "channel", "Online");
+        List<Map<String, Object>> first = engine.select("byChannel", "channel", "Online").get(0).rows;
+        engine.select("byChannel", "channel", "Store");
+        List<Map<String, Object>> second = engine.select("byChannel", "channel", "Store").get(0).rows;
+
+        // 沒有篩選時不掃描遮罩：兩次取消選取拿到同一份快取
+        assertSame(first, second);
+        assertEquals(10.0 + 1 + 100, totals(first, "month").get("Jan"), 0);
+    }
+
+    @Test
+    public void batchedTogglesRecomputeEveryOriginOnce() {
+        List<Map<String, Object>> rows = sales(1);
+        CrossFilterEngine engine = new CrossFilterEngine();
+        engine.link(chart("byChannel", rows, "channel"));
+        engine.link(chart("byMonth", rows, "month"));
+
+        // Online 點兩次（抵銷）再點 Store，byMonth 點 Feb：最後狀態 = Store × Feb
+        assertEquals(SOURCE, engine.toggle("byChannel", "channel", "Online"));
+        assertEquals(SOURCE, engine.toggle("byChannel", "channel", "Online"));
+        assertEquals(SOURCE, engine.toggle("byChannel", "channel", "Store"));
+        assertEquals(SOURCE, engine.toggle("byMonth", "month", "Feb"));
+        assertNull(engine.toggle("byMonth", "month", "Mar"));
+
+        // 兩張圖表都發起點選：彼此都受對方篩選影響，都要更新
+        List<CrossFilterEngine.Update> updates = engine.recompute(SOURCE, Arrays.asList("byChannel", "byMonth"));
+        assertEquals(2, updates.size());
+        Map<String, Double> byChannel = totals(updates.get(0).rows, "channel");
+        assertEquals(20.0, byChannel.get("Online"), 0); // 只剩 Feb
+        assertEquals(2.0, byChannel.get("Store"), 0);
+        Map<String, Double> byMonth = totals(updates.get(1).rows, "month");
+        assertEquals(1.0, byMonth.get("Jan"), 0); // 只剩 Store
+        assertEquals(2.0, byMonth.get("Feb"), 0);
+    }
+
+    @Test
+    public void updatesComputedBeforeARefreshAreNotCurrent() {
+        CrossFilterEngine engine = new CrossFilterEngine();
+        List<Map<String, Object>> first = sales(1);
+        engine.link(chart("byChannel", first, "channel"));
+        engine.link(chart("byMonth", first, "month"));
+        CrossFilterEngine.Update update = engine.select("byChannel", "channel", "Online").get(0);
+        assertTrue(engine.isCurrent(update));
+
+        // 背景計算完成前資料已更新：結果不可再推送
+        List<Map<String, Object>> refreshed = sales(10);
+        engine.link(chart("byChannel", refreshed, "channel"));
+        engine.link(chart("byMonth", refreshed, "month"));
+        assertFalse(engine.isCurrent(update));
+
+        engine.unlink("byMonth");
+        assertFalse(engine.isCurrent(update));
+    }
+
+    @Test
+    public void refreshedRowsReplaceTheSourceAndDropStaleSelections() {
+        CrossFilterEngine engine = new CrossFilterEngine();
+        List<Map<String, Object>> first = sales(1);
+        engine.link(chart("byChannel", first, "channel"));
+        engine.link(chart("byMonth", first, "month"));
+        engine.select("byChannel", "channel", "Online");
+
+        // 資料更新：新的 rows 實例（數值 ×10）
+        List<Map<String, Object>> refreshed = sales(10);
+        engine.link(chart("byChannel", refreshed, "channel"));
+        engine.link(chart("byMonth", refreshed, "month"));
+
+        // 舊的 Online 選取已清除，這次點選 Store 只剩 Store 的篩選，且使用新數值
+        List<CrossFilterEngine.Update> updates = engine.select("byChannel", "channel", "Store");
+        Map<String, Double> totals = totals(updates.get(0).rows, "month");
+        assertEquals(10.0, totals.get("Jan"), 0);
+        assertEquals(20.0, totals.get("Feb"), 0);
+        assertEquals(1, engine.getSourceCount());
+    }
+
+    @Test
+    public void unlinkingTheLastChartReleasesTheSource() {
+        List<Map<String, Object>> rows = sales(1);
+        CrossFilterEngine engine = new CrossFilterEngine();
+        engine.link(chart("byChannel", rows, "channel"));
+        engine.link(chart("byMonth", rows, "month"));
+        engine.select("byMonth", "month", "Jan");
+
+        engine.unlink("byMonth");
+        assertEquals(1, engine.getSourceCount());
+        // byMonth 的篩選隨 unlink 移除：點選 byChannel 沒有其他圖表可更新
+        assertTrue(engine.select("byChannel", "channel", "Online").isEmpty());
+
+        engine.unlink("byChannel");
+        assertEquals(0, engine.getSourceCount());
+        assertTrue(engine.select("byChannel", "channel", "Online").isEmpty());
+    }
+
+    private static ChartUIModel chart(String id, List<Map<String, Object>> rows, String groupField) {
+        Map<String, String> encode = new HashMap<>();
+        encode.put("x", groupField);
+        encode.put("y", "revenue");
+        return new ChartUIModel.Builder(id, rows)
+                .type("bar")
+                .encode(encode)
+                .crossFilter(SOURCE)
+                .build();
+    }
+
+    /** 2 個月 × 3 個通路；Online = 10 / 20、Store = 1 / 2、Partner = 100 / 200（再乘以 scale） */
+    private static List<Map<String, Object>> sales(int scale) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String[] channels = { "Online", "Store", "Partner" };
+        int[] base = { 10, 1, 100 };
+        for (int m = 0; m < 2; m++) {
+            for (int c = 0; c < channels.length; c++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("month", m == 0 ? "Jan" : "Feb");
+                row.put("channel", channels[c]);
+                row.put("revenue", base[c] * (m + 1) * scale);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Map<String, Double> totals(List<Map<String, Object>> rows, String field) {
+        Map<String, Double> out = new HashMap<>();
+        for (Map<String, Object> row : rows)
+            out.merge((String) row.get(field), ((Number) row.get("revenue")).doubleValue(), Double::sum);
+        return out;
+    }
+}
@@ -0,0 +1,130 @@
+package com.datrixpath.myapplication.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PointGridIndex 測試：框選 / 點選結果與逐點掃描一致，密度圖總數等於有效點數
+ */
+public class PointGridIndexTest {
+
+    private static final int N = 200_000;
+
+    private final float[] xs = new float[N];
+    private final float[] ys = new float[N];
+    private final PointGridIndex index;
+
+    public PointGridIndexTest() {
+        Random random = new Random(11);
+        for (int i = 0; i < N; i++) {
+            if (i % 1000 == 0) { // 缺值
+                xs[i] = Float.NaN;
+                ys[i] = random.nextFloat();
+            } else if (i % 3 == 0) { // 密集群集 + 重複座標
+                xs[i] = 40f + (float) random.nextGaussian();
+                ys[i] = i % 9 == 0 ? 5f : -20f + (float) random.nextGaussian() * 3;
+            } else {
+                xs[i] = random.nextFloat() * 100f;
+                ys[i] = random.nextFloat() * 50f - 25f;
+            }
+        }
+        index = new PointGridIndex.Builder(xs, ys).densitySize(64, 64).build();
+    }
+
+    @Test
+    public void rectQueriesMatchLinearScan() {
+        Random random = new Random(3);
+        for (int q = 0; q < 200; q++) {
+            double x0 = random.nextDouble() * 120 - 10, x1 = random.nextDouble() * 120 - 10;
+            double y0 = random.nextDouble() * 60 - 30, y1 = random.nextDouble() * 60 - 30;
+            PointGridIndex.Selection s = index.queryRect(x0, x1, y0, y1, Integer.MAX_VALUE);
+
+            int count = 0;
+            double sumX = 0;
+            int[] expected = new int[N];
+            for (int i = 0; i < N; i++) {
+                if (xs[i] >= Math.min(x0, x1) && xs[i] <= Math.max(x0, x1)
+                        && ys[i] >= Math.min(y0, y1) && ys[i] <= Math.max(y0, y1)) {
+                    expected[count++] = i;
+                    sumX += xs[i];
+                }
+            }
+            assertEquals(count, s.getCount());
+            assertFalse(s.isTruncated());
+            int[] ids = s.getIds().clone();
+            Arrays.sort(ids);
+            assertArrayEquals(Arrays.copyOf(expected, count), ids);
+            if (count > 0)
+                assertEquals(sumX / count, s.getMeanX(), 1e-6);
+        }
+    }
+
+    @Test
+    public void idsAreCappedButCountStaysExact() {
+        PointGridIndex.Selection all = index.queryRect(-1e9, 1e9, -1e9, 1e9, 1_000);
+        assertEquals(N - N / 1000, all.getCount());
+        assertEquals(1_000, all.getIds().length);
+        assertTrue(all.isTruncated());
+    }
+
+    @Test
+    public void cancelledQueriesStopBeforeScanningTheGrid() {
+        int[] checks = { 0 };
+        PointGridIndex.Selection s = index.queryRect(-1e9, 1e9, -1e9, 1e9, 1_000, () -> ++checks[0] > 2);
+        assertNull(s);
+        assertEquals(3, checks[0]); // 第三列格開始前中止
+    }
+
+    @Test
+    public void nearestMatchesLinearScan() {
+        Random random = new Random(5);
+        for (int q = 0; q < 500; q++) {
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 50 - 25;
+            double rx = 0.5 + random.nextDouble(), ry = 0.25 + random.nextDouble();
+            int got = index.nearest(x, y, rx, ry);
+
+            double best = 1.0;
+            int expected = -1;
+            for (int i = 0; i < N; i++) {
+                double dx = (xs[i] - x) / rx, dy = (ys[i] - y) / ry;
+                double d = dx * dx + dy * dy;
+                if (d <= best) {
+                    best = d;
+                    expected = i;
+                }
+            }
+            if (expected < 0) {
+                assertEquals(-1, got);
+            } else {
+                double dx = (xs[got] - x) / rx, dy = (ys[got] - y) / ry;
+                assertEquals("距離相同時任一點皆可", best, dx * dx + dy * dy, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void densityViewBecomesChartSource() {
+        ChartUIModel model = new ChartUIModel.Builder("scatter", Collections.emptyList())
+                .type("scatter")
+                .points(index)
+                .build();
+
+        int total = 0;
+        for (Map<String, Object> row : model.getSource())
+            total += (Integer) row.get(PointGridIndex.FIELD_COUNT);
+        assertEquals(index.getPointCount(), total);
+        assertTrue(model.getSource().size() <= 64 * 64);
+        assertEquals(PointGridIndex.FIELD_X, model.getEncode().get("x"));
+        assertEquals(3, model.getDimensions().size());
+    }
+}
@@ -0,0 +1,118 @@
+package com.datrixpath.myapplication.stats;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+import com.datrixpath.myapplication.model.SeriesOverlay;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RollingWindow / LiveSeries 測試：增量統計與整窗重算結果一致，衍生欄位隨新點推送
+ */
+public class RollingStatsTest {
+
+    @Test
+    public void incrementalStatsMatchFullRecompute() {
+        Random random = new Random(7);
+        int capacity = 17;
+        RollingWindow window = new RollingWindow(capacity);
+        List<Double> all = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // 含大量重複值與大幅跳動，檢查單調佇列與 Welford 移除
+            double x = i % 50 < 10 ? 3.0 : 1_000 + random.nextGaussian() * 250;
+            window.add(x);
+            all.add(x);
+
+            List<Double> win = all.subList(Math.max(0, all.size() - capacity), all.size());
+            double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (double v : win) {
+                sum += v;
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            double mean = sum / win.size();
+            double m2 = 0;
+            for (double v : win)
+                m2 += (v - mean) * (v - mean);
+
+            assertEquals(win.size(), window.size());
+            assertEquals(sum, window.sum(), 1e-6);
+            assertEquals(mean, window.mean(), 1e-8);
+            assertEquals(min, window.min(), 0);
+            assertEquals(max, window.max(), 0);
+            assertEquals(m2 / win.size(), window.variance(), 1e-5);
+        }
+    }
+
+    @Test
+    public void liveSeriesEmitsDerivedColumnsWithNewPoints() {
+        List<Map<String, Object>> initial = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            initial.add(point(i, i * 10));
+        Map<String, String> encode = new HashMap<>();
+        encode.put("x", "ts");
+        encode.put("y", "value");
+        ChartUIModel base = new ChartUIModel.Builder("live", initial)
+                .type("line")
+                .encode(encode)
+                .build();
+
+        LiveSeries live = new LiveSeries.Builder(base)
+                .maxRows(5)
+                .movingAverage(3)
+                .minMax(3)
+                .bollinger(3, 2)
+                .build();
+
+        ChartUIModel model = live.getModel();
+        assertSame("未 append 時沿用同一快照", model, live.getModel());
+        assertEquals(4, model.getSource().size());
+        assertEquals(5, model.getLiveMaxRows());
+        assertEquals(5, model.getOverlays().size());
+        assertEquals(SeriesOverlay.Style.LINE, model.getOverlays().get(0).getStyle());
+        assertTrue(model.getDimensions().contains("value_ma3"));
+        assertTrue(model.getDimensions().contains("value_lower3"));
+
+        // 第一個點：只有一個值，標準差無法計算 → 不寫入 Bollinger 欄位
+        Map<String, Object> first = model.getSource().get(0);
+        assertEquals(0.0, (Double) first.get("value_ma3"), 0);
+        assertFalse(first.containsKey("value_upper3"));
+
+        Map<String, Object> in = point(4, 70);
+        Map<String, Object> row = live.append(in);
+        assertFalse("輸入不會被修改", in.containsKey("value_ma3"));
+        assertEquals((20 + 30 + 70) / 3.0, (Double) row.get("value_ma3"), 1e-9);
+        assertEquals(20.0, (Double) row.get("value_min3"), 0);
+        assertEquals(70.0, (Double) row.get("value_max3"), 0);
+        double sd = Math.sqrt(((20 - 40) * (20 - 40) + (30 - 40) * (30 - 40) + (70 - 40) * (70 - 40)) / 3.0);
+        assertEquals(40 + 2 * sd, (Double) row.get("value_upper3"), 1e-9);
+
+        // 缺值的點照常加入，但不更新統計
+        Map<String, Object> gap = live.append(point(5, null));
+        assertFalse(gap.containsKey("value_ma3"));
+
+        ChartUIModel next = live.getModel();
+        assertNotSame(model, next);
+        assertEquals("視窗最多 maxRows 個點", 5, next.getSource().size());
+        assertEquals(1, next.getSource().get(0).get("ts"));
+    }
+
+    private static Map<String, Object> point(int ts, Integer value) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ts", ts);
+        if (value != null)
+            row.put("value", value);
+        return row;
+    }
+}
@@ -0,0 +1,130 @@
+package com.datrixpath.myapplication.viewmodel;
+
+import com.datrixpath.myapplication.model.ChartUIModel;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ChartRefreshScheduler 測試：未變更時退避、變更時通知並恢復間隔、single-flight、
+ * 載入期間取消的圖表不再通知
+ */
+public class ChartRefreshSchedulerTest {
+
+    private final List<ChartUIModel> changed = Collections.synchronizedList(new ArrayList<>());
+    private final ChartRefreshScheduler scheduler = new ChartRefreshScheduler.Builder(
+            new ChartRefreshScheduler.Listener() {
+                @Override
+                public void onChartChanged(ChartUIModel model) {
+                    changed.add(model);
+                }
+
+                @Override
+                public void onChartError(String chartId, Exception e) {
+                    throw new AssertionError(e);
+                }
+            })
+            .jitter(0)
+            .build();
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void unchangedLoadsBackOffAndChangeResets() throws Exception {
+        ChartUIModel initial = model("kpi");
+        ChartUIModel updated = model("kpi");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch unchangedTwice = new CountDownLatch(2);
+        CountDownLatch updatedOnce = new CountDownLatch(1);
+
+        scheduler.schedule("kpi", 50, initial, current -> {
+            int n = loads.incrementAndGet();
+            if (n <= 2) {
+                unchangedTwice.countDown();
+                return current; // 未變更
+            }
+            updatedOnce.countDown();
+            return n == 3 ? updated : current;
+        });
+
+        assertTrue(unchangedTwice.await(2, TimeUnit.SECONDS));
+        Thread.sleep(15);
+        assertEquals("兩次未變更 → 間隔 ×4", 4, scheduler.getBackoff("kpi"));
+        assertTrue(changed.isEmpty());
+
+        assertTrue(updatedOnce.await(2, TimeUnit.SECONDS));
+        Thread.sleep(15);
+        assertEquals(1, changed.size());
+        assertSame(updated, changed.get(0));
+        assertEquals("變更後恢復原間隔", 1, scheduler.getBackoff("kpi"));
+    }
+
+    @Test
+    public void overlappingTriggersRunOneLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        scheduler.schedule("slow", 60_000, model("slow"), current -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return current;
+        });
+
+        scheduler.refreshNow("slow");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++)
+            scheduler.refreshNow("slow");
+        Thread.sleep(100);
+        release.countDown();
+        Thread.sleep(50);
+
+        assertEquals("載入進行中的觸發應被略過", 1, loads.get());
+    }
+
+    @Test
+    public void cancelDuringLoadDropsTheResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        ChartUIModel updated = model("cancelled");
+        scheduler.schedule("cancelled", 60_000, model("cancelled"), current -> {
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            finished.countDown();
+            return updated;
+        });
+
+        scheduler.refreshNow("cancelled");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        scheduler.cancel("cancelled");
+        release.countDown();
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        assertTrue("取消後完成的載入不應通知", changed.isEmpty());
+    }
+
+    private static ChartUIModel model(String id) {
+        return new ChartUIModel.Builder(id, new ArrayList<Map<String, Object>>())
+                .type("line")
+                .encode(new HashMap<>())
+                .build();
+    }
+}